@@ -1,7 +0,0 @@
-import java.awt.image.BufferedImage;
-
-public class Collectible extends GameObject {
-    public Collectible(int x, int y, BufferedImage image) {
-        super(x, y, image);
-    }
-}
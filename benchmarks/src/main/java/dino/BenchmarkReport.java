@@ -0,0 +1,43 @@
+package dino;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Runs the benchmarks with the GC profiler and prints one table: throughput and bytes allocated
+// per operation for each benchmark and parameter. Reading down a benchmark's rows gives its
+// scaling curve against level size. An optional argument filters benchmarks by regex.
+public class BenchmarkReport {
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : "dino\\..*Benchmark")
+            .addProfiler(GCProfiler.class)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+        List<String> rows = new ArrayList<>();
+        for (RunResult run : results) {
+            String name = run.getParams().getBenchmark().replaceFirst("^dino\\.", "");
+            StringBuilder params = new StringBuilder();
+            for (String key : run.getParams().getParamsKeys()) {
+                if (params.length() > 0) params.append(',');
+                params.append(key).append('=').append(run.getParams().getParam(key));
+            }
+            Result<?> alloc = run.getSecondaryResults().get("gc.alloc.rate.norm");
+            if (alloc == null) alloc = run.getSecondaryResults().get("·gc.alloc.rate.norm");
+            rows.add(String.format("%-36s %-18s %16.1f %14s",
+                name, params, run.getPrimaryResult().getScore(),
+                alloc == null ? "n/a" : String.format("%.1f", alloc.getScore())));
+        }
+        System.out.println();
+        System.out.println(String.format("%-36s %-18s %16s %14s", "Benchmark", "Params", "ops/s", "B/op"));
+        for (String row : rows) System.out.println(row);
+    }
+}
@@ -0,0 +1,76 @@
+package dino;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Cost of getting a level ready to play. setupLevel() copies a level's entities out of its
+// LevelData, for the five built-in levels and for synthetic levels of growing obstacle count;
+// for the synthetic ones this is set against laying the level out from scratch (generate) and
+// mapping its compiled file (load).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LevelSetupBenchmark {
+
+    @State(Scope.Thread)
+    public static class BuiltinLevel {
+        @Param({"1", "2", "3", "4", "5"})
+        public int level;
+        GameWorld world;
+
+        @Setup
+        public void setup() {
+            world = new GameWorld(level);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SyntheticLevel {
+        @Param({"100", "1000", "10000"})
+        public int obstacles;
+        LevelConfig config;
+        Path file;
+        GameWorld world;
+
+        @Setup
+        public void setup() throws IOException {
+            config = LevelConfig.synthetic(obstacles);
+            file = Files.createTempFile("synthetic", ".dlvl");
+            LevelCompiler.generate(config).write(file);
+            world = new GameWorld(LevelData.load(file));
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public int builtin(BuiltinLevel state) {
+        state.world.setupLevel();
+        return state.world.getObstacles().size();
+    }
+
+    @Benchmark
+    public int synthetic(SyntheticLevel state) {
+        state.world.setupLevel();
+        return state.world.getObstacles().size();
+    }
+
+    @Benchmark
+    public int generate(SyntheticLevel state) {
+        return LevelCompiler.generate(state.config).numObstacles;
+    }
+
+    @Benchmark
+    public int load(SyntheticLevel state) throws IOException {
+        return LevelData.load(state.file).numObstacles;
+    }
+}
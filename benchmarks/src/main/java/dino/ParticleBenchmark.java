@@ -0,0 +1,56 @@
+package dino;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// One frame's worth of particle work with a steady population of about 'live' particles:
+// a tick of spawning and updating, the copy into a snapshot, and drawing the snapshot into an
+// offscreen image. BenchmarkReport's B/op column should stay at 0 whatever the count.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ParticleBenchmark {
+    static final int LIFE = 20;
+
+    @Param({"100", "1000", "4000"})
+    public int live;
+
+    ParticleSystem particles;
+    ParticleSystem snapshot;
+    ParticleRenderer renderer;
+    BufferedImage frame;
+    Graphics2D g;
+    int tick;
+
+    @Setup
+    public void setup() {
+        particles = new ParticleSystem(GameWorld.MAX_PARTICLES);
+        snapshot = new ParticleSystem(GameWorld.MAX_PARTICLES);
+        renderer = new ParticleRenderer();
+        frame = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        tick = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage frame() {
+        // Spawning live / LIFE per tick keeps the population around 'live'
+        int kind = 1 + tick++ % (ParticleSystem.KINDS - 1);
+        particles.burst(kind, Math.max(1, live / LIFE), 400, 200, 4f, 2f, LIFE, LIFE);
+        particles.update();
+        particles.copyVisible(snapshot, -100, 900);
+        renderer.draw(g, snapshot, 0, 0.5f, 800);
+        return frame;
+    }
+}
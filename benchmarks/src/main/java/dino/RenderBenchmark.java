@@ -0,0 +1,50 @@
+package dino;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// One frame of GamePanel painting into an offscreen image under java.awt.headless. The world
+// advances one tick per frame so the camera keeps moving over new entities.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    // Negative values are built-in levels, positive ones synthetic obstacle counts
+    @Param({"-1", "-3", "-5", "100", "1000", "10000", "100000"})
+    public int level;
+
+    GameWorld world;
+    GamePanel panel;
+    BufferedImage frame;
+    Graphics2D g;
+    int tick;
+
+    @Setup
+    public void setup() {
+        world = level < 0 ? new GameWorld(-level) : new GameWorld(LevelConfig.synthetic(level));
+        panel = new GamePanel(world);
+        panel.setSize(800, 400);
+        frame = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        tick = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        if (world.isOver()) world.rewind();
+        world.step(++tick % TickBenchmark.JUMP_EVERY == 0 ? GameWorld.INPUT_JUMP : 0);
+        panel.paint(g);
+        return frame;
+    }
+}
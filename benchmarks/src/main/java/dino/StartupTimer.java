@@ -0,0 +1,87 @@
+package dino;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Time from launching a JVM to the first frame of level 1 with its images, for launches without
+// the startup cache (deleted beforehand, so the launch writes it) and with it, alternating.
+// Each launch is a fresh process so class loading and AWT start-up are counted as they are for
+// the game; Probe does what Main does up to the first frame, drawing it offscreen. Run from the
+// repository root, where the assets are:
+//   java -cp benchmarks/target/benchmarks.jar dino.StartupTimer [launches per mode, default 5]
+public class StartupTimer {
+    static final String READY = "first-frame";
+
+    public static void main(String[] args) throws Exception {
+        int launches = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        long[] cold = new long[launches];
+        long[] cached = new long[launches];
+        for (int i = 0; i < launches; i++) {
+            Files.deleteIfExists(StartupCache.FILE);
+            cold[i] = launch();
+            if (!Files.exists(StartupCache.FILE)) throw new IllegalStateException("No startup cache was written");
+            cached[i] = launch();
+        }
+        System.out.println(String.format("%-8s %10s %10s %10s", "launch", "min ms", "median ms", "max ms"));
+        print("cold", cold);
+        print("cached", cached);
+    }
+
+    // Milliseconds until the probe reports its first frame
+    private static long launch() throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-Djava.awt.headless=true",
+            "-cp", System.getProperty("java.class.path"), Probe.class.getName()));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long elapsed = -1;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line; (line = out.readLine()) != null; ) {
+                if (line.equals(READY) && elapsed < 0) {
+                    elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } else {
+                    System.out.println("  probe: " + line);
+                }
+            }
+        }
+        if (process.waitFor() != 0 || elapsed < 0) throw new IllegalStateException("Probe failed");
+        return elapsed;
+    }
+
+    private static void print(String name, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.println(String.format("%-8s %10d %10d %10d", name, sorted[0], sorted[sorted.length / 2],
+            sorted[sorted.length - 1]));
+    }
+
+    // One launch: Main's start-up up to the first frame of level 1, then the cache write, if any
+    public static class Probe {
+        public static void main(String[] args) throws Exception {
+            Assets.shared().preloadStartup();
+            GamePanel panel = new GamePanel(new GameWorld(1)); // waits for its images, as a first frame would
+            panel.setSize(800, 400);
+            BufferedImage frame = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = frame.createGraphics();
+            panel.paint(g);
+            g.dispose();
+            System.out.println(READY);
+            System.out.flush();
+            // Not timed: the game writes the cache in the background while the first level plays
+            Future<?> write = Assets.shared().startupCacheWrite();
+            if (write != null) write.get();
+            System.exit(0);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package dino;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One simulation tick (what the Swing timer used to do in actionPerformed), on built-in and
+// synthetic levels. The player jumps on a fixed rhythm; when the run ends the world is
+// rewound to the start of the same layout, which is amortised over the ticks a run lasts.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TickBenchmark {
+    static final int JUMP_EVERY = 25;
+
+    // Negative values are built-in levels, positive ones synthetic obstacle counts
+    @Param({"-1", "-3", "-5", "100", "1000", "10000", "100000"})
+    public int level;
+
+    GameWorld world;
+    int tick;
+
+    @Setup
+    public void setup() {
+        world = level < 0 ? new GameWorld(-level) : new GameWorld(LevelConfig.synthetic(level));
+        tick = 0;
+    }
+
+    @Benchmark
+    public int step() {
+        if (world.isOver()) world.rewind();
+        world.step(++tick % JUMP_EVERY == 0 ? GameWorld.INPUT_JUMP : 0);
+        return world.getCameraOffset();
+    }
+}
@@ -0,0 +1,128 @@
+package dino;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+// Optional active rendering: a dedicated render thread that draws each frame into a
+// page-flipped Canvas BufferStrategy at a target frame rate, instead of waiting on Swing Timer
+// events and repaint() coalescing on the EDT. Ticks run separately on the SimulationLoop; this
+// thread only draws the snapshots it publishes.
+// Enabled with -Ddino.activeRendering=true; -Ddino.targetFps sets the frame rate (default 60)
+// for this loop and for the Swing timer path alike.
+public class ActiveRenderLoop implements Runnable {
+    // Sleep until this close to the frame deadline, then yield the rest away
+    private static final long SPIN_NANOS = 1_500_000L;
+
+    private final GamePanel panel;
+    private final Canvas canvas = new Canvas();
+    private final long frameNanos;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public ActiveRenderLoop(GamePanel panel, int targetFps) {
+        this.panel = panel;
+        this.frameNanos = 1_000_000_000L / Math.max(1, targetFps);
+        canvas.setIgnoreRepaint(true);
+        canvas.setFocusable(false); // keep keyboard focus on the panel
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("dino.activeRendering");
+    }
+
+    public static int targetFps() {
+        return Integer.getInteger("dino.targetFps", 60);
+    }
+
+    public Canvas getCanvas() { return canvas; }
+
+    public boolean isRunning() { return running; }
+
+    // The loop waits for the canvas to be displayable, so this can be called before it is shown
+    public synchronized void start() {
+        if (running) return;
+        if (thread != null) {
+            try {
+                thread.join(); // a stop() under the tree lock didn't wait for the last frame
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        canvas.setVisible(true);
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Returns once the thread has finished its last frame, so the caller may change what the
+    // panel draws afterwards. From removeNotify, under the AWT tree lock, it only signals the
+    // thread: the loop may need that lock to finish a frame. By then the panel has been stopped
+    // the waiting way already (see GamePanel.load and SceneManager.show), or is going away.
+    public synchronized void stop() {
+        running = false;
+        if (thread == null || Thread.holdsLock(canvas.getTreeLock())) return;
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        BufferStrategy strategy = null;
+        long nextFrame = System.nanoTime();
+        while (running) {
+            if (!canvas.isDisplayable() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+                sleepNanos(5_000_000L); // not on screen yet
+                continue;
+            }
+            if (strategy == null) {
+                canvas.createBufferStrategy(2);
+                strategy = canvas.getBufferStrategy();
+            }
+            try {
+                render(strategy);
+            } catch (IllegalStateException ex) {
+                return; // canvas lost its peer while being removed
+            }
+            nextFrame += frameNanos;
+            long now = System.nanoTime();
+            if (nextFrame < now - frameNanos) nextFrame = now; // fell behind; don't try to catch up
+            waitUntil(nextFrame);
+        }
+    }
+
+    private void render(BufferStrategy strategy) {
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    panel.renderWorld(g, canvas.getWidth(), canvas.getHeight());
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > SPIN_NANOS) sleepNanos(remaining - SPIN_NANOS);
+        while (System.nanoTime() < deadline) Thread.yield();
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package dino;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+// Shared image cache. Images are decoded on a background thread and copied into images
+// compatible with the screen, which Java2D can keep in video memory and blit without a
+// format conversion. Callers get Futures and never wait on a decode: a level's background is
+// requested ahead of time (level 1 at startup, the next level while one is played), and
+// GamePanel draws its plain fallback for any image that isn't ready yet.
+// The game itself also goes through the StartupCache: on a launch that finds a current one the
+// images are copied out of it rather than decoded, and a launch that doesn't writes one.
+public class Assets {
+    private static final Assets shared = new Assets();
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "asset-loader");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<Integer, Future<BufferedImage>> backgrounds = new ConcurrentHashMap<>();
+    private Future<SpriteAtlas> atlas;
+    private Future<SpriteShapes> shapes;
+    private Future<?> cacheWrite;
+
+    public static Assets shared() { return shared; }
+
+    // Queue what the first screens need, so it's decoded while Swing starts up. The startup
+    // cache is opened first, on the loader thread, so the loads queued after it can use it.
+    public synchronized void preloadStartup() {
+        Future<StartupCache> cache = StartupCache.isEnabled()
+            ? loader.submit(StartupCache::openCurrent)
+            : null;
+        shapes(); // first: Main waits for them before any world is built
+        sprites();
+        background(1);
+        if (cache == null) return;
+        // Loads run in order, so by the time the write runs everything it needs is ready
+        cacheWrite = loader.submit(() -> {
+            if (await(cache) == null) writeStartupCache();
+            return null;
+        });
+    }
+
+    // The background write of the startup cache queued by preloadStartup, if any
+    synchronized Future<?> startupCacheWrite() {
+        return cacheWrite;
+    }
+
+    // Runs on the loader thread, after the startup loads queued ahead of it
+    private void writeStartupCache() throws IOException {
+        LevelData[] levels = new LevelData[StartupCache.LEVELS + 1];
+        BufferedImage[] images = new BufferedImage[StartupCache.LEVELS + 1];
+        for (int n = 1; n <= StartupCache.LEVELS; n++) {
+            try {
+                levels[n] = LevelData.builtin(n);
+            } catch (UncheckedIOException ex) {
+                levels[n] = null; // not shipped; loaded from levels/ if it ever is
+            }
+            // Reuse what this launch has decoded already; waiting for a queued load would deadlock
+            Future<BufferedImage> loaded = backgrounds.get(n);
+            images[n] = loaded != null && loaded.isDone() ? await(loaded) : decodeBackground(n);
+        }
+        SpriteAtlas sprites = await(sprites());
+        SpriteShapes shapes = await(shapes());
+        if (sprites == null || shapes == null) return; // a sprite is missing, and the plain shapes need no cache
+        StartupCache.write(StartupCache.FILE, StartupCache.sourceStamp(), levels, images, sprites.getImage(), shapes);
+    }
+
+    // Background for a level; the Future yields null when the level has no image
+    public Future<BufferedImage> background(int level) {
+        return backgrounds.computeIfAbsent(level, n -> loader.submit(() -> {
+            StartupCache cache = StartupCache.current();
+            return cache != null && cache.hasImage(n) ? cache.image(n) : decodeBackground(n);
+        }));
+    }
+
+    static Path backgroundPath(int level) {
+        return Paths.get("images", "level" + level + ".png");
+    }
+
+    private static BufferedImage decodeBackground(int level) throws IOException {
+        BufferedImage image = read(backgroundPath(level).toString());
+        return image == null ? null : toCompatible(image);
+    }
+
+    // The sprites' collision outlines as SpriteShapes.resolve() settles them, from the startup
+    // cache once it is open; yields null if a sprite is missing
+    public synchronized Future<SpriteShapes> shapes() {
+        if (shapes == null) shapes = loader.submit(SpriteShapes::resolve);
+        return shapes;
+    }
+
+    // Atlas of the player, obstacle and collectible sprites; yields null if a sprite is missing
+    public synchronized Future<SpriteAtlas> sprites() {
+        if (atlas == null) {
+            atlas = loader.submit(() -> {
+                StartupCache cache = StartupCache.current();
+                if (cache != null && cache.hasImage(StartupCache.ATLAS)) {
+                    return SpriteAtlas.of(cache.image(StartupCache.ATLAS));
+                }
+                BufferedImage dino = read("dino.png");
+                BufferedImage obstacle = read("obstacle.png");
+                BufferedImage collectible = read("collectible.png");
+                if (dino == null || obstacle == null || collectible == null) return null;
+                return SpriteAtlas.build(dino, obstacle, collectible);
+            });
+        }
+        return atlas;
+    }
+
+    // The result if it's ready, else null without waiting
+    static <T> T poll(Future<T> f) {
+        return f.isDone() ? await(f) : null;
+    }
+
+    // Waits for the result; for offscreen rendering, where a stall doesn't matter. Load
+    // failures come back as null, the same as a missing file.
+    static <T> T await(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            return null;
+        }
+    }
+
+    static BufferedImage read(String path) throws IOException {
+        File file = new File(path);
+        return file.isFile() ? ImageIO.read(file) : null;
+    }
+
+    // An empty image in the screen's pixel layout (plain int RGB/ARGB when there is no screen)
+    static BufferedImage createCompatible(int w, int h, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            int type = transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+            return new BufferedImage(w, h, type);
+        }
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+            .getDefaultScreenDevice().getDefaultConfiguration();
+        return gc.createCompatibleImage(w, h, transparency);
+    }
+
+    // An offscreen image for drawing into every frame: a VolatileImage, which can live in video
+    // memory, when 'gc' belongs to a screen, or else a compatible image. Callers must validate
+    // a VolatileImage before each use and check it for lost contents after.
+    static Image createAccelerated(GraphicsConfiguration gc, int w, int h, int transparency) {
+        if (gc == null || gc.getDevice().getType() != GraphicsDevice.TYPE_RASTER_SCREEN) {
+            return createCompatible(w, h, transparency);
+        }
+        return gc.createCompatibleVolatileImage(w, h, transparency);
+    }
+
+    static BufferedImage toCompatible(BufferedImage image) {
+        return toCompatible(image, image.getColorModel().getTransparency());
+    }
+
+    static BufferedImage toCompatible(BufferedImage image, int transparency) {
+        BufferedImage copy = createCompatible(image.getWidth(), image.getHeight(), transparency);
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+}
@@ -0,0 +1,264 @@
+package dino;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+// Plays levels headlessly many times over on a ForkJoinPool, with a scripted or randomized
+// jump policy, and reports how the runs went: pass rate, what ended the failed ones, and how
+// much was collected. Meant for tuning level numbers against each other.
+//
+// Usage: java -Djava.awt.headless=true -cp game/target/classes dino.BatchRunner
+//            [--runs N] [--threads N] [--seed N] [--policy SPEC] [TARGET...]
+//   TARGET: a built-in level number (default: 1 to 5), a .dlvl file, or
+//           config:pattern,obstacles,seconds,speed,holes,required for a generated level
+//   SPEC:   random[:p]       jump with probability p each tick (default 0.05)
+//           every[:n]        jump every n ticks (default 25)
+//           lookahead[:s]    jump for close obstacles, holes and collectibles, reacting with
+//                            probability s (default 0.9)
+// Columns: pass rate; runs ended by a hole, by obstacle hits using up health, or by reaching
+// the finish short of 70% collected; mean collected percentage; mean run length.
+//
+// Each worker plays its share of runs on one world of its own, rewound between runs, and
+// keeps its own tallies until the end, so workers share nothing and throughput scales with
+// cores. Run i always gets the same random stream, so results don't depend on the thread count.
+public class BatchRunner {
+    private static final int RUNS_PER_TASK = 256;
+
+    // Decides each tick's input for a simulated player; one instance per worker
+    public interface Policy {
+        int input(GameWorld world, SplittableRandom random);
+    }
+
+    public static Supplier<Policy> parsePolicy(String spec) {
+        String[] parts = spec.split(":", 2);
+        switch (parts[0]) {
+            case "random": {
+                double p = parts.length > 1 ? Double.parseDouble(parts[1]) : 0.05;
+                return () -> (world, random) -> random.nextDouble() < p ? GameWorld.INPUT_JUMP : 0;
+            }
+            case "every": {
+                int n = parts.length > 1 ? Integer.parseInt(parts[1]) : 25;
+                return () -> (world, random) -> (world.getTick() + 1) % n == 0 ? GameWorld.INPUT_JUMP : 0;
+            }
+            case "lookahead": {
+                double skill = parts.length > 1 ? Double.parseDouble(parts[1]) : 0.9;
+                return () -> new Lookahead(skill);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown policy '" + spec + "'");
+        }
+    }
+
+    // Jumps when the next obstacle's hitbox or hole is a few ticks away, or when a jump now
+    // would meet a collectible near the top of its height, like a player who watches the
+    // track; 'skill' is the chance of reacting on any one of those ticks
+    static class Lookahead implements Policy {
+        // Ticks into a jump at which the player's box covers a high (y=120) or low collectible
+        private static final int HIGH_TICKS = 9, LOW_TICKS = 5;
+        private static final int JUMP_TICKS = 24; // 180px up and down at 15px a tick
+        private final double skill;
+        private final SpatialIndex.Cursor obstacles = new SpatialIndex.Cursor();
+        private final SpatialIndex.Cursor holes = new SpatialIndex.Cursor();
+        private final SpatialIndex.Cursor collectibles = new SpatialIndex.Cursor();
+        private final SpatialIndex.Cursor landing = new SpatialIndex.Cursor();
+
+        Lookahead(double skill) {
+            this.skill = skill;
+        }
+
+        @Override
+        public int input(GameWorld world, SplittableRandom random) {
+            if (world.isJumping()) return 0;
+            int px = world.getCameraOffset() + world.getPlayerX();
+            int speed = world.getObstacleSpeed();
+            int reach = speed * 3;
+            int r = world.getCharacterR();
+            boolean close = false;
+            EntityStore o = world.getObstacles();
+            world.getObstacleIndex().query(obstacles, px, px + r + reach + 1);
+            for (int i = obstacles.start; i < obstacles.end && !close; i++) {
+                // At least a tick out: any later and the rising player clips the obstacle
+                int d = o.x[i] + o.w[i] / 3 - (px + r);
+                close = d >= speed && d <= reach + speed;
+            }
+            EntityStore h = world.getHoles();
+            world.getHoleIndex().query(holes, px, px + 25 + reach + 1);
+            for (int i = holes.start; i < holes.end && !close; i++) {
+                int d = h.x[i] + 25 - px;
+                close = d >= 0 && d <= reach;
+            }
+            if (close) return random.nextDouble() < skill ? GameWorld.INPUT_JUMP : 0;
+            // Going for a collectible is only worth it if the jump doesn't come down in a hole
+            int land = px + speed * JUMP_TICKS;
+            world.getHoleIndex().query(landing, land, land + speed * 2);
+            for (int i = landing.start; i < landing.end; i++) {
+                if (h.x[i] + h.w[i] - 25 > land) return 0;
+            }
+            EntityStore c = world.getCollectibles();
+            world.getCollectibleIndex().query(collectibles, px, px + speed * HIGH_TICKS + 1);
+            for (int i = collectibles.start; i < collectibles.end && !close; i++) {
+                if (c.isCollected(i)) continue;
+                int ticks = c.y[i] < 150 ? HIGH_TICKS : LOW_TICKS;
+                int d = c.x[i] - px;
+                close = d > speed * (ticks - 1) && d <= speed * ticks;
+            }
+            return close && random.nextDouble() < skill ? GameWorld.INPUT_JUMP : 0;
+        }
+    }
+
+    // A level to play, with the name it's reported under
+    static class Target {
+        final String name;
+        final LevelData data;
+
+        Target(String name, LevelData data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        static Target parse(String spec) throws IOException {
+            if (spec.startsWith("config:")) {
+                String[] f = spec.substring("config:".length()).split(",");
+                if (f.length != 6) throw new IllegalArgumentException("config takes 6 numbers: " + spec);
+                int[] v = new int[6];
+                for (int i = 0; i < 6; i++) v[i] = Integer.parseInt(f[i].trim());
+                return new Target(spec, LevelCompiler.generate(new LevelConfig(v[0], v[1], v[2], v[3], v[4], v[5])));
+            }
+            if (spec.endsWith(".dlvl")) {
+                return new Target(spec, LevelData.load(Paths.get(spec)));
+            }
+            int level = Integer.parseInt(spec);
+            return new Target("level " + level, LevelData.builtin(level));
+        }
+    }
+
+    // Tallies for a batch of runs; merged pairwise as the fork/join tree completes
+    public static class Stats {
+        long runs;
+        long ticks;
+        final long[] endReasons = new long[5]; // indexed by GameWorld.END_*
+        double collectedPercent; // summed over runs
+
+        void add(GameWorld world) {
+            runs++;
+            ticks += world.getTick();
+            endReasons[world.getEndReason()]++;
+            collectedPercent += world.getCollectedPercent();
+        }
+
+        Stats merge(Stats other) {
+            runs += other.runs;
+            ticks += other.ticks;
+            for (int i = 0; i < endReasons.length; i++) endReasons[i] += other.endReasons[i];
+            collectedPercent += other.collectedPercent;
+            return this;
+        }
+
+        double percent(int endReason) {
+            return runs == 0 ? 0 : 100.0 * endReasons[endReason] / runs;
+        }
+    }
+
+    static class RunTask extends RecursiveTask<Stats> {
+        private final LevelData data;
+        private final Supplier<Policy> policies;
+        private final long seed;
+        private final long from, to;
+
+        RunTask(LevelData data, Supplier<Policy> policies, long seed, long from, long to) {
+            this.data = data;
+            this.policies = policies;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= RUNS_PER_TASK) return play();
+            long mid = (from + to) >>> 1;
+            RunTask left = new RunTask(data, policies, seed, from, mid);
+            left.fork();
+            Stats right = new RunTask(data, policies, seed, mid, to).compute();
+            return right.merge(left.join());
+        }
+
+        private Stats play() {
+            Stats stats = new Stats();
+            GameWorld world = new GameWorld(data);
+            Policy policy = policies.get();
+            for (long run = from; run < to; run++) {
+                // Every run starts from the same fresh player, whatever the last one ended in
+                world.rewind();
+                world.restorePlayer(100, 0, false, false, 0);
+                SplittableRandom random = new SplittableRandom(seed + run * 0x9E3779B97F4A7C15L);
+                while (!world.isOver()) {
+                    world.step(policy.input(world, random));
+                }
+                stats.add(world);
+            }
+            return stats;
+        }
+    }
+
+    public static Stats run(ForkJoinPool pool, LevelData data, Supplier<Policy> policy, long seed, long runs) {
+        return pool.invoke(new RunTask(data, policy, seed, 0, runs));
+    }
+
+    public static void main(String[] args) throws IOException {
+        long runs = 10_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        String policySpec = "lookahead";
+        List<String> targetSpecs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs": runs = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--policy": policySpec = args[++i]; break;
+                default: targetSpecs.add(args[i]);
+            }
+        }
+        if (targetSpecs.isEmpty()) {
+            for (int level = 1; level <= 5; level++) targetSpecs.add(Integer.toString(level));
+        }
+        Supplier<Policy> policy = parsePolicy(policySpec);
+        SpriteShapes.resolve(); // the results depend on the sprites found here
+        List<Target> targets = new ArrayList<>();
+        for (String spec : targetSpecs) {
+            try {
+                targets.add(Target.parse(spec));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Bad target '" + spec + "': " + ex.getMessage());
+                System.exit(2);
+            }
+        }
+
+        System.out.printf("%d runs per level, policy %s, %d threads, seed %d%n", runs, policySpec, threads, seed);
+        System.out.printf("%-24s %7s %7s %7s %9s %11s %10s %10s%n",
+            "level", "pass%", "hole%", "health%", "short%", "collected%", "avg ticks", "runs/s");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long totalTicks = 0;
+        long totalStart = System.nanoTime();
+        for (Target target : targets) {
+            long start = System.nanoTime();
+            Stats stats = run(pool, target.data, policy, seed, runs);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            totalTicks += stats.ticks;
+            System.out.printf("%-24s %7.2f %7.2f %7.2f %9.2f %11.2f %10.0f %10.0f%n", target.name,
+                stats.percent(GameWorld.END_CLEARED), stats.percent(GameWorld.END_HOLE),
+                stats.percent(GameWorld.END_HEALTH), stats.percent(GameWorld.END_COLLECTIBLES),
+                stats.collectedPercent / stats.runs, (double) stats.ticks / stats.runs, stats.runs / seconds);
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - totalStart) / 1e9;
+        System.out.printf("%d ticks in %.2f s (%.1f M ticks/s)%n", totalTicks, seconds, totalTicks / seconds / 1e6);
+    }
+}
@@ -0,0 +1,165 @@
+package dino;
+
+// Pixel-exact collision shape: one bit per pixel, stored as rows of 64-bit words. Sprite masks
+// hold the outline of a sprite drawn at that size (see SpriteShapes), so what collides is what
+// is drawn. The plain shapes are what GamePanel draws when there are no sprites: a pixel is set
+// when its centre lies inside the shape (Java2D's own fills can differ along the edges). Neither
+// is rasterised by Java2D, so the headless simulation, and every replay of it, comes out the same
+// whatever JDK it runs on. Two masks are tested against each other with a word-wise AND over the
+// rows they share, after a rectangle check has found the boxes overlap.
+public class CollisionMask {
+    public static final int RECT = 0;
+    public static final int OVAL = 1;
+    public static final int TRIANGLE = 2; // apex at the top centre, as obstacles are drawn
+    public static final int SPRITE = 3; // SPRITE + n is the outline of SpriteAtlas sprite n
+    private static final int SHAPES = SPRITE + SpriteAtlas.SPRITES;
+
+    // Masks are immutable, so each shape and size is built once and shared by every world. The
+    // table is indexed by shape, width and height, and replaced by a larger copy when a bigger
+    // size than it covers comes up, so looking a mask up never allocates.
+    private static final CollisionMask EMPTY = new CollisionMask(RECT, 0, 0);
+    private static volatile Table table = new Table(128, 128);
+
+    private static final class Table {
+        final int maxWidth, maxHeight;
+        final CollisionMask[] masks;
+
+        Table(int maxWidth, int maxHeight) {
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+            masks = new CollisionMask[SHAPES * maxWidth * maxHeight];
+        }
+
+        int key(int shape, int width, int height) {
+            return (shape * maxWidth + width - 1) * maxHeight + height - 1;
+        }
+    }
+
+    final int width, height;
+    final int words; // per row
+    private final long[] rows;
+
+    private CollisionMask(int shape, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        this.rows = new long[words * height];
+        SpriteShapes sprites = shape >= SPRITE ? SpriteShapes.shared() : null;
+        if (shape >= SPRITE && sprites == null) throw new IllegalStateException("No sprite outlines");
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (sprites != null ? sprites.covers(shape - SPRITE, width, height, x, y)
+                        : contains(shape, width, height, x + 0.5, y + 0.5)) {
+                    rows[y * words + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+    }
+
+    // The mask for a shape and size, from the shared table
+    public static CollisionMask of(int shape, int width, int height) {
+        if (width <= 0 || height <= 0) return EMPTY;
+        Table t = table;
+        if (width > t.maxWidth || height > t.maxHeight) t = grow(width, height);
+        int key = t.key(shape, width, height);
+        CollisionMask mask = t.masks[key];
+        if (mask == null) {
+            // Races only build an identical mask twice; final fields make sharing it safe
+            mask = new CollisionMask(shape, width, height);
+            t.masks[key] = mask;
+        }
+        return mask;
+    }
+
+    // Doubles the table until it covers width x height, keeping the masks built so far
+    private static synchronized Table grow(int width, int height) {
+        Table old = table;
+        if (width <= old.maxWidth && height <= old.maxHeight) return old;
+        int maxWidth = old.maxWidth, maxHeight = old.maxHeight;
+        while (maxWidth < width) maxWidth *= 2;
+        while (maxHeight < height) maxHeight *= 2;
+        Table t = new Table(maxWidth, maxHeight);
+        for (int shape = 0; shape < SHAPES; shape++) {
+            for (int w = 1; w <= old.maxWidth; w++) {
+                for (int h = 1; h <= old.maxHeight; h++) {
+                    t.masks[t.key(shape, w, h)] = old.masks[old.key(shape, w, h)];
+                }
+            }
+        }
+        table = t;
+        return t;
+    }
+
+    private static boolean contains(int shape, int w, int h, double px, double py) {
+        switch (shape) {
+            case OVAL: {
+                double rx = w / 2.0, ry = h / 2.0;
+                double nx = (px - rx) / rx, ny = (py - ry) / ry;
+                return nx * nx + ny * ny < 1.0;
+            }
+            case TRIANGLE: {
+                // Same points as GamePanel's fillPolygon: (0, h), (w / 2, 0), (w, h)
+                int apex = w / 2;
+                return cross(0, h, apex, 0, px, py) >= 0 && cross(apex, 0, w, h, px, py) >= 0;
+            }
+            default:
+                return true;
+        }
+    }
+
+    // Which side of the line from (x0, y0) to (x1, y1) the point is on; >= 0 is to the right in
+    // screen coordinates, where y grows downwards
+    private static double cross(int x0, int y0, int x1, int y1, double px, double py) {
+        return (x1 - x0) * (py - y0) - (y1 - y0) * (px - x0);
+    }
+
+    public boolean get(int x, int y) {
+        return (rows[y * words + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    // True if this mask at (ax, ay) and 'other' at (bx, by) share a set pixel
+    public boolean overlaps(int ax, int ay, CollisionMask other, int bx, int by) {
+        int top = Math.max(ay, by);
+        int bottom = Math.min(ay + height, by + other.height);
+        int left = Math.max(ax, bx);
+        int right = Math.min(ax + width, bx + other.width);
+        if (top >= bottom || left >= right) return false;
+        // Only the words of this mask's rows that cover the shared columns are ANDed
+        int firstWord = (left - ax) >>> 6;
+        int lastWord = (right - 1 - ax) >>> 6;
+        int shift = ax - bx; // bit i of this row lines up with bit i + shift of the other's
+        boolean hit = false;
+        for (int y = top; y < bottom && !hit; y++) {
+            int rowA = (y - ay) * words;
+            int rowB = (y - by) * other.words;
+            for (int w = firstWord; w <= lastWord; w++) {
+                if ((rows[rowA + w] & other.bitsAt(rowB, (w << 6) + shift)) != 0) {
+                    hit = true;
+                    break;
+                }
+            }
+        }
+        assert hit == overlapsByPixel(ax, ay, other, bx, by);
+        return hit;
+    }
+
+    // The 64 bits of a row starting at bit 'start', which may run off either end of the row
+    private long bitsAt(int rowStart, int start) {
+        int w = start >> 6;
+        int s = start & 63;
+        long lo = w >= 0 && w < words ? rows[rowStart + w] : 0L;
+        if (s == 0) return lo;
+        long hi = w + 1 >= 0 && w + 1 < words ? rows[rowStart + w + 1] : 0L;
+        return (lo >>> s) | (hi << (64 - s));
+    }
+
+    // Checked with -ea: the same test one pixel at a time
+    private boolean overlapsByPixel(int ax, int ay, CollisionMask other, int bx, int by) {
+        for (int y = Math.max(ay, by); y < Math.min(ay + height, by + other.height); y++) {
+            for (int x = Math.max(ax, bx); x < Math.min(ax + width, bx + other.width); x++) {
+                if (get(x - ax, y - ay) && other.get(x - bx, y - by)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package dino;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Streams endless-mode content in fixed-width chunks ahead of the camera. Each chunk is laid
+// out with the same rules setupLevel() uses for the fixed levels: the per-level obstacle shape
+// patterns (moving to harder patterns as the run goes on), obstacles pushed clear of holes, and
+// a safe landing gap kept after every collectible. Chunks are generated in order from one
+// seeded Random, so a seed always produces the same run.
+public class EndlessGenerator {
+    public static final int CHUNK_WIDTH = 2400;
+    private static final int CHUNKS_PER_PATTERN = 4; // ~4 screens before shapes get harder
+    private static final int HOLE_W = 90;
+    private static final int SAFE_LANDING_GAP = 180;
+    private static final int CY_HIGH = 120, CY_LOW = 180, CW = 30, CH = 30;
+
+    private final long seed;
+    private Random random;
+    private int nextChunk;
+    private int obstacleCount; // running obstacle index fed to the shape patterns
+    private int collectibleCount; // running index for alternating high/low collectibles
+    private int nextObstacleX; // spacing runs on across chunk boundaries
+    private int nextCollectibleX;
+
+    // Scratch space for laying out one chunk before it is handed to the world
+    private final int[] obsX = new int[64];
+    private final int[] colX = new int[64];
+
+    public EndlessGenerator(long seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    public void reset() {
+        random = new Random(seed);
+        nextChunk = 0;
+        obstacleCount = 0;
+        collectibleCount = 0;
+        // The first chunk starts where the fixed levels do, clear of the player
+        nextObstacleX = 600;
+        nextCollectibleX = 1200;
+    }
+
+    // World x up to which content has been generated
+    public int generatedUpTo() {
+        return nextChunk * CHUNK_WIDTH;
+    }
+
+    private static int patternFor(int chunk) {
+        return Math.min(5, 1 + chunk / CHUNKS_PER_PATTERN);
+    }
+
+    // Lays out the next chunk and appends its entities to the stores, in ascending x.
+    // Spacing is in ticks at the given speed, so gaps widen as the world speeds up.
+    public void generateChunk(int speed, EntityStore obstacles, EntityStore collectibles, EntityStore holes) {
+        int chunk = nextChunk++;
+        int pattern = patternFor(chunk);
+        int x0 = chunk * CHUNK_WIDTH;
+        int x1 = x0 + CHUNK_WIDTH;
+        // --- Obstacles every 60-90 ticks of travel ---
+        int numObs = 0;
+        while (nextObstacleX < x1 && numObs < obsX.length) {
+            obsX[numObs++] = nextObstacleX;
+            nextObstacleX += speed * (60 + random.nextInt(31));
+        }
+        // --- Holes from level 3's pattern on, at most one per chunk ---
+        int holeX = Integer.MIN_VALUE;
+        if (pattern >= 3 && random.nextInt(2) == 0) {
+            holeX = x0 + 200 + random.nextInt(CHUNK_WIDTH - 400 - HOLE_W);
+        }
+        // --- Collectibles every 70-100 ticks of travel ---
+        int numCol = 0;
+        while (nextCollectibleX < x1 && numCol < colX.length) {
+            colX[numCol++] = nextCollectibleX;
+            nextCollectibleX += speed * (70 + random.nextInt(31));
+        }
+        // --- Adjust obstacles so none overlap with holes ---
+        for (int i = 0; i < numObs; i++) {
+            if (overlapsHole(obsX[i], 40, holeX)) {
+                obsX[i] = Math.max(obsX[i], holeX + HOLE_W + 20);
+            }
+        }
+        // --- Keep a safe landing gap after every collectible ---
+        for (int c = 0; c < numCol; c++) {
+            for (int i = 0; i < numObs; i++) {
+                if (obsX[i] > colX[c] && obsX[i] - colX[c] < SAFE_LANDING_GAP) {
+                    obsX[i] = colX[c] + SAFE_LANDING_GAP;
+                }
+            }
+        }
+        Arrays.sort(obsX, 0, numObs);
+        int lastRight = Integer.MIN_VALUE;
+        for (int i = 0; i < numObs; i++) {
+            int size = GameWorld.obstacleSize(pattern, obstacleCount);
+            int w = 40 + size * 20, h = 40 + size * 10;
+            // Drop obstacles pushed out of the chunk, back over the hole or onto each other
+            if (obsX[i] + w > x1 || obsX[i] < lastRight + 20 || overlapsHole(obsX[i], w, holeX)) continue;
+            obstacles.add(obsX[i], 290 - h, w, h, EntityStore.OBSTACLE);
+            obstacleCount++;
+            lastRight = obsX[i] + w;
+        }
+        if (holeX != Integer.MIN_VALUE) {
+            holes.add(holeX, 290, HOLE_W, 30, EntityStore.HOLE);
+        }
+        for (int c = 0; c < numCol; c++) {
+            int cy = (collectibleCount++ % 2 == 0) ? CY_HIGH : CY_LOW;
+            collectibles.add(colX[c], cy, CW, CH, EntityStore.COLLECTIBLE);
+        }
+    }
+
+    private static boolean overlapsHole(int x, int w, int holeX) {
+        return holeX != Integer.MIN_VALUE && x + w > holeX && x < holeX + HOLE_W;
+    }
+}
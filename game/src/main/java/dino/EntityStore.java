@@ -0,0 +1,239 @@
+package dino;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+// Struct-of-arrays storage for one kind of entity: parallel int columns for x, y, w, h and
+// flags, plus a bitset of collected entries. Collision, culling and rendering walk these
+// columns directly instead of chasing a pointer per entity, which keeps tens of thousands of
+// entities cheap. Entries are kept sorted by x once a level is laid out (see sortByX), and
+// SpatialIndex queries that order.
+public class EntityStore {
+    // Flag bits
+    public static final int OBSTACLE = 1;
+    public static final int COLLECTIBLE = 2;
+    public static final int HOLE = 4;
+
+    private static final int SUFFIX_BLOCK = 256; // entries commonSuffix compares at a time
+
+    int[] x = new int[16];
+    int[] y = new int[16];
+    int[] w = new int[16];
+    int[] h = new int[16];
+    int[] flags = new int[16];
+    long[] collected = new long[1];
+    private int count = 0;
+    private int maxWidth = 0;
+
+    public int size() { return count; }
+
+    // Widest entry ever added; SpatialIndex uses it to bound its search
+    public int maxWidth() { return maxWidth; }
+
+    public void clear() {
+        count = 0;
+        maxWidth = 0;
+        Arrays.fill(collected, 0L);
+    }
+
+    public int add(int ex, int ey, int ew, int eh, int eflags) {
+        if (count == x.length) grow();
+        x[count] = ex;
+        y[count] = ey;
+        w[count] = ew;
+        h[count] = eh;
+        flags[count] = eflags;
+        if (ew > maxWidth) maxWidth = ew;
+        return count++;
+    }
+
+    private void grow() {
+        ensureCapacity(x.length * 2);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= x.length) return;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        w = Arrays.copyOf(w, capacity);
+        h = Arrays.copyOf(h, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        collected = Arrays.copyOf(collected, (capacity + 63) >>> 6);
+    }
+
+    public boolean isCollected(int i) {
+        return (collected[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void setCollected(int i) {
+        collected[i >>> 6] |= 1L << i;
+    }
+
+    public void clearCollected(int i) {
+        collected[i >>> 6] &= ~(1L << i);
+    }
+
+    public void clearCollected() {
+        Arrays.fill(collected, 0L);
+    }
+
+    // Reorders every column by ascending x (ties keep insertion order)
+    public void sortByX() {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = ((long) x[i] << 32) | i;
+        Arrays.sort(keys);
+        int[][] columns = {x, y, w, h, flags};
+        int[] tmp = new int[count];
+        for (int[] column : columns) {
+            for (int i = 0; i < count; i++) tmp[i] = column[(int) keys[i]];
+            System.arraycopy(tmp, 0, column, 0, count);
+        }
+        long[] bits = new long[collected.length];
+        for (int i = 0; i < count; i++) {
+            int from = (int) keys[i];
+            if ((collected[from >>> 6] & (1L << from)) != 0) bits[i >>> 6] |= 1L << i;
+        }
+        collected = bits;
+    }
+
+    // Replaces the contents with n entries read column by column: every x, then y, w and h
+    public void readColumns(IntBuffer in, int n, int eflags) {
+        ensureCapacity(n);
+        in.get(x, 0, n);
+        in.get(y, 0, n);
+        in.get(w, 0, n);
+        in.get(h, 0, n);
+        Arrays.fill(flags, 0, n, eflags);
+        Arrays.fill(collected, 0L);
+        maxWidth = 0;
+        for (int i = 0; i < n; i++) {
+            if (w[i] > maxWidth) maxWidth = w[i];
+        }
+        count = n;
+    }
+
+    // Writes the entries out in the layout readColumns() expects
+    public void writeColumns(IntBuffer out) {
+        out.put(x, 0, count);
+        out.put(y, 0, count);
+        out.put(w, 0, count);
+        out.put(h, 0, count);
+    }
+
+    // Number of leading entries equal in this store and 'other'. Whole columns are compared with
+    // Arrays.mismatch, which the JIT vectorizes, rather than entry by entry.
+    public int commonPrefix(EntityStore other) {
+        int n = Math.min(count, other.count);
+        int prefix = n;
+        for (int c = 0; c < 5; c++) {
+            int m = Arrays.mismatch(column(c), 0, prefix, other.column(c), 0, prefix);
+            if (m >= 0) prefix = m;
+        }
+        return prefix;
+    }
+
+    // Number of trailing entries equal in this store and 'other', not reaching back past index
+    // 'prefix' in either. Compares blocks from the end until one differs, then that block's entries.
+    public int commonSuffix(EntityStore other, int prefix) {
+        int n = Math.min(count, other.count) - prefix;
+        int suffix = 0;
+        while (suffix < n) {
+            int block = Math.min(SUFFIX_BLOCK, n - suffix);
+            int a = count - suffix - block, b = other.count - suffix - block;
+            if (!sameRange(a, other, b, block)) {
+                while (sameRange(a + block - 1, other, b + block - 1, 1)) {
+                    suffix++;
+                    block--;
+                }
+                return suffix;
+            }
+            suffix += block;
+        }
+        return suffix;
+    }
+
+    private boolean sameRange(int from, EntityStore other, int otherFrom, int n) {
+        for (int c = 0; c < 5; c++) {
+            if (!Arrays.equals(column(c), from, from + n, other.column(c), otherFrom, otherFrom + n)) return false;
+        }
+        return true;
+    }
+
+    private int[] column(int c) {
+        switch (c) {
+            case 0: return x;
+            case 1: return y;
+            case 2: return w;
+            case 3: return h;
+            default: return flags;
+        }
+    }
+
+    // Replaces entries [from, to) with entries [srcFrom, srcTo) of 'src', moving the entries after
+    // them up or down. Entries outside the range keep their collected flags; the new ones start
+    // uncollected. Costs a shift of the tail, not a rebuild of the store.
+    public void replaceRange(int from, int to, EntityStore src, int srcFrom, int srcTo) {
+        int n = srcTo - srcFrom;
+        int tail = count - to;
+        int newCount = from + n + tail;
+        ensureCapacity(newCount);
+        for (int[] column : new int[][] {x, y, w, h, flags}) {
+            System.arraycopy(column, to, column, from + n, tail);
+        }
+        System.arraycopy(src.x, srcFrom, x, from, n);
+        System.arraycopy(src.y, srcFrom, y, from, n);
+        System.arraycopy(src.w, srcFrom, w, from, n);
+        System.arraycopy(src.h, srcFrom, h, from, n);
+        System.arraycopy(src.flags, srcFrom, flags, from, n);
+        for (int i = from; i < from + n; i++) {
+            if (w[i] > maxWidth) maxWidth = w[i];
+        }
+        // Collected bits: the head stays, the tail moves by the change in length, the rest clear
+        long[] bits = new long[collected.length];
+        for (int word = 0; word < (count + 63) >>> 6; word++) {
+            for (long b = collected[word]; b != 0; b &= b - 1) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(b);
+                int dst = i < from ? i : i >= to ? i - to + from + n : -1;
+                if (dst >= 0) bits[dst >>> 6] |= 1L << dst;
+            }
+        }
+        collected = bits;
+        count = newCount;
+    }
+
+    public int collectedCount() {
+        int n = 0;
+        for (long word : collected) n += Long.bitCount(word);
+        return n;
+    }
+
+    // Drops the first n entries, shifting the columns and the collected bits down
+    public void removeFirst(int n) {
+        if (n <= 0) return;
+        n = Math.min(n, count);
+        int remaining = count - n;
+        System.arraycopy(x, n, x, 0, remaining);
+        System.arraycopy(y, n, y, 0, remaining);
+        System.arraycopy(w, n, w, 0, remaining);
+        System.arraycopy(h, n, h, 0, remaining);
+        System.arraycopy(flags, n, flags, 0, remaining);
+        shiftBitsDown(collected, n, count);
+        count = remaining;
+    }
+
+    private static void shiftBitsDown(long[] bits, int n, int count) {
+        int words = (count + 63) >>> 6;
+        int wordShift = n >>> 6;
+        int bitShift = n & 63;
+        for (int i = 0; i < words; i++) {
+            int src = i + wordShift;
+            long lo = src < bits.length ? bits[src] : 0L;
+            long hi = src + 1 < bits.length ? bits[src + 1] : 0L;
+            bits[i] = bitShift == 0 ? lo : (lo >>> bitShift) | (hi << (64 - bitShift));
+        }
+        // Clear anything at or past the new end
+        int remaining = count - n;
+        for (int i = (remaining + 63) >>> 6; i < bits.length; i++) bits[i] = 0L;
+        if ((remaining & 63) != 0) bits[remaining >>> 6] &= (1L << remaining) - 1;
+    }
+}
@@ -0,0 +1,55 @@
+package dino;
+
+// Accumulator for a fixed simulation step that is independent of the display rate.
+// Real time is banked as it passes and spent in whole ticks, so late or early frames
+// never change how fast the game runs; what is left over tells the renderer how far
+// it is between the last two ticks.
+public class FixedTimestep {
+    private final long stepNanos;
+    private final int maxStepsPerAdvance; // caps catch-up after a long stall
+    private long lastTime;
+    private long accumulator;
+
+    public FixedTimestep(long stepNanos, int maxStepsPerAdvance) {
+        this.stepNanos = stepNanos;
+        this.maxStepsPerAdvance = maxStepsPerAdvance;
+        reset(System.nanoTime());
+    }
+
+    public void reset(long now) {
+        lastTime = now;
+        accumulator = 0;
+    }
+
+    // Returns how many simulation steps are due at time 'now'
+    public int advance(long now) {
+        accumulator += now - lastTime;
+        lastTime = now;
+        long due = accumulator / stepNanos;
+        if (due > maxStepsPerAdvance) {
+            // Too far behind (debugger, suspended window): drop the backlog instead of
+            // fast-forwarding through it
+            accumulator = accumulator % stepNanos;
+            return maxStepsPerAdvance;
+        }
+        accumulator -= due * stepNanos;
+        return (int) due;
+    }
+
+    // Fraction of a step elapsed since the last one, in [0, 1)
+    public float alpha() {
+        return (float) accumulator / stepNanos;
+    }
+
+    // Clock time at which the last step that advance() handed out fell due
+    public long lastStepAt() {
+        return lastTime - accumulator;
+    }
+
+    // Clock time at which the next step falls due
+    public long nextStepAt() {
+        return lastStepAt() + stepNanos;
+    }
+
+    public long getStepNanos() { return stepNanos; }
+}
@@ -0,0 +1,19 @@
+package dino;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event for one rendered frame, committed by GamePanel while PerfMonitor is active
+@Name("dino.Frame")
+@Label("Frame")
+@Category("Dino")
+@Description("Rendering of one frame")
+class FrameEvent extends Event {
+    @Label("Level")
+    int level;
+    @Label("Active Rendering")
+    boolean activeRendering;
+}
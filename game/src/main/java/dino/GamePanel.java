@@ -0,0 +1,558 @@
+package dino;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// The game scene. Main keeps one and loads each level or run into it, so its timer, threads
+// and paint resources are created once; start() and dispose() switch all of them on and off.
+public class GamePanel extends JPanel implements Scene, ActionListener, KeyListener {
+    private Timer timer;
+    private Main mainFrame;
+    private int level = 1;
+    private boolean showEndUI = false;
+    private boolean levelCleared = false;
+    private JPanel endPanel;
+
+    // All game state lives in the world; the panel only feeds it input and renders it
+    private final GameWorld world;
+    // Ticks run on the simulation thread at a fixed 20ms step. Key events reach it through a
+    // lock-free queue, and frames are drawn from the latest snapshot it published, never from
+    // the world itself, so painting and physics never wait for each other.
+    private final FixedTimestep clock = new FixedTimestep(GameWorld.TICK_MILLIS * 1_000_000L, 5);
+    private final InputQueue inputQueue = new InputQueue(256);
+    private final TripleBuffer<WorldSnapshot> snapshots = new TripleBuffer<>(WorldSnapshot::new);
+    private SimulationLoop simulation; // null for render-only panels
+    private volatile int viewWidth = 800; // last width drawn at, so snapshots cover the view
+    private ActiveRenderLoop activeLoop; // null when painting through the Swing timer path
+    private TelemetryServer telemetry; // null unless -Ddino.telemetryPort is set
+    // Set when a level file was edited (see LevelWatcher); the simulation thread checks whether
+    // it was the level being played before its next tick
+    private final AtomicBoolean levelEdited = new AtomicBoolean();
+    // Inputs of the current run, written to dino.replayDir (default "replays") when it ends;
+    // null when the world can't be replayed from a log
+    private RunLog runLog;
+    private static final DateTimeFormatter RUN_FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private final PerfMonitor perf = new PerfMonitor(ActiveRenderLoop.targetFps());
+
+    private static final int PIXELS_PER_METER = 50;
+
+    // Paint resources are created once so painting a frame allocates nothing
+    private static final Color END_OVERLAY_COLOR = new Color(0, 0, 0, 180);
+    private static final Font END_TITLE_FONT = new Font("Arial", Font.BOLD, 32);
+    private static final Font END_TEXT_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font END_WARNING_FONT = new Font("Arial", Font.BOLD, 16);
+    // Translucent ovals go through Java2D's compositing pipe, which allocates a raster per
+    // fill; particles are pre-rendered dots blitted instead
+    private final ParticleRenderer particleRenderer = new ParticleRenderer();
+    // Background, ground, tick lines and finish line are blitted from pre-rendered strips
+    private final StaticLayerCache staticLayers = new StaticLayerCache();
+    // The world drops to a lower resolution when frames take longer than the frame budget
+    private final ResolutionScaler resolution = new ResolutionScaler(ActiveRenderLoop.targetFps());
+    private final int[] polyX = new int[3];
+    private final int[] polyY = new int[3];
+
+    // HUD text is rebuilt only when the value behind it changes
+    private String levelText;
+    private String healthText;
+    private String collectedText;
+    private int shownHealth = -1;
+    private int shownCollected = -1;
+    private String endTitleText;
+    // Endless runs show the distance travelled, drawn from a char buffer as it changes every few ticks
+    private final char[] distanceText = "Distance: 0000000000 m".toCharArray();
+    private int distanceTextLength = 0;
+    private int shownDistance = -1;
+
+    // Images come from the shared Assets cache and are picked up by the first frame after
+    // they finish decoding; until then the plain shapes and yellow sky are drawn
+    private Future<BufferedImage> bgFuture;
+    private Future<SpriteAtlas> atlasFuture;
+    private boolean assetsPending = true;
+    private BufferedImage bgImage = null;
+    private SpriteAtlas atlas = null;
+
+    // A game scene for 'world'; nothing runs until start()
+    public GamePanel(Main mainFrame, GameWorld world) {
+        this(mainFrame, world, true);
+    }
+
+    // A panel that only renders 'world' and never ticks it, for offscreen rendering
+    GamePanel(GameWorld world) {
+        this(null, world, false);
+    }
+
+    private GamePanel(Main mainFrame, GameWorld world, boolean live) {
+        this.mainFrame = mainFrame;
+        this.world = world;
+        setFocusable(true);
+        addKeyListener(this);
+        // The timer only paces repaints; ticks run on the simulation thread
+        timer = new Timer(Math.max(1, 1000 / ActiveRenderLoop.targetFps()), this);
+        setLayout(null);
+        if (!live) {
+            // Offscreen frames should look like the game does once loading has finished
+            prepareLevel();
+            Assets.await(bgFuture);
+            Assets.await(atlasFuture);
+            pollAssets();
+            return;
+        }
+        simulation = new SimulationLoop(this, clock);
+        telemetry = TelemetryServer.shared();
+        if (ActiveRenderLoop.isEnabled()) {
+            activeLoop = new ActiveRenderLoop(this, ActiveRenderLoop.targetFps());
+            Canvas canvas = activeLoop.getCanvas();
+            canvas.addKeyListener(this);
+            add(canvas);
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    canvas.setSize(getSize());
+                }
+            });
+        }
+        prepareLevel();
+    }
+
+    // Loads another level into this scene; show it again to start playing
+    public void load(LevelData data) {
+        dispose();
+        world.load(data);
+        prepareLevel();
+    }
+
+    public void load(LevelConfig config) {
+        dispose();
+        world.load(config);
+        prepareLevel();
+    }
+
+    // Resets everything the panel keeps about the level the world has just loaded
+    private void prepareLevel() {
+        level = world.getLevel();
+        showEndUI = false;
+        levelCleared = false;
+        if (endPanel != null) {
+            remove(endPanel);
+            endPanel = null;
+        }
+        inputQueue.clear();
+        levelText = world.isEndless() ? "Endless" : "Level: " + level;
+        shownHealth = -1;
+        shownCollected = -1;
+        shownDistance = -1;
+        Assets assets = Assets.shared();
+        bgFuture = assets.background(level);
+        atlasFuture = assets.sprites();
+        assetsPending = true;
+        bgImage = null;
+        staticLayers.setBackground(null);
+        atlas = null;
+        if (simulation == null) return;
+        runLog = RunLog.canRecord(world) ? RunLog.begin(world) : null;
+        // Decode the next level's background while this one is played, so Continue doesn't wait
+        if (!world.isEndless() && level < 5) assets.background(level + 1);
+    }
+
+    @Override
+    public JComponent getComponent() { return this; }
+
+    @Override
+    public void start() {
+        if (simulation == null) return;
+        publishSnapshot(System.nanoTime());
+        simulation.start();
+        if (activeLoop != null) {
+            activeLoop.start();
+        } else {
+            timer.start();
+        }
+    }
+
+    @Override
+    public void pause() {
+        dispose();
+    }
+
+    // Nothing to resume once the level is over: the end screen is static. If the window was
+    // minimized while the last effects played, the simulation stopped before it could hand over
+    // to onLevelEnd, so the end screen is brought up here instead.
+    @Override
+    public void resume() {
+        if (showEndUI || simulation == null) return;
+        if (!world.isOver()) {
+            start();
+            return;
+        }
+        publishSnapshot(System.nanoTime());
+        onLevelEnd();
+    }
+
+    // Stops the simulation, the repaint timer and the render thread; start() brings them back
+    @Override
+    public void dispose() {
+        timer.stop();
+        if (simulation != null) simulation.stop();
+        if (activeLoop != null) activeLoop.stop();
+    }
+
+    // True while any of the simulation, the repaint timer or the render thread is running
+    boolean isRunning() {
+        return timer.isRunning() || (simulation != null && simulation.isRunning())
+            || (activeLoop != null && activeLoop.isRunning());
+    }
+
+    boolean isShowingEndScreen() { return showEndUI; }
+
+    // Also covers the frame closing, or the panel being removed without going through the manager
+    @Override
+    public void removeNotify() {
+        dispose();
+        super.removeNotify();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        // While the game loop owns the canvas, the world is drawn there, not here
+        if (activeLoop != null && activeLoop.isRunning()) return;
+        renderWorld(g, getWidth(), getHeight());
+    }
+
+    // Draws the latest world snapshot; shared by paintComponent and the active rendering loop.
+    // Moving positions are interpolated between the snapshot's tick and the one before it,
+    // by how much of the next tick's time has passed.
+    void renderWorld(Graphics g, int width, int height) {
+        viewWidth = width;
+        if (simulation == null) publishSnapshot(System.nanoTime()); // render-only: nothing else runs the world
+        WorldSnapshot snap = snapshots.read();
+        float alpha = simulation == null || showEndUI ? 1f : snap.alphaAt(System.nanoTime(), clock.getStepNanos());
+        boolean timed = perf.isActive();
+        FrameEvent event = null;
+        if (timed) {
+            event = new FrameEvent();
+            event.begin();
+        }
+        float scale = resolution.getScale();
+        long start = System.nanoTime();
+        drawScaled(g, snap, width, height, alpha);
+        drawHud(g, snap, width, height);
+        long end = System.nanoTime();
+        // Offscreen frames are always drawn at full resolution
+        if (simulation != null) resolution.recordFrame(end - start);
+        if (!timed) return;
+        perf.recordFrame(start, end, scale);
+        perf.drawOverlay(g);
+        event.level = level;
+        event.activeRendering = activeLoop != null;
+        event.commit();
+    }
+
+    // The world at the resolution the scaler has picked for this frame
+    private void drawScaled(Graphics g, WorldSnapshot snap, int width, int height, float alpha) {
+        Graphics2D scaled = resolution.beginFrame(g, width, height);
+        if (scaled != null) {
+            try {
+                drawWorld(scaled, snap, width, height, alpha);
+            } finally {
+                scaled.dispose();
+            }
+            if (resolution.endFrame(g, width, height)) return;
+        }
+        drawWorld(g, snap, width, height, alpha);
+    }
+
+    // Copies the world out for the renderer; called by whichever thread is running the world
+    void publishSnapshot(long tickTime) {
+        snapshots.writeBuffer().capture(world, viewWidth, tickTime);
+        snapshots.publish();
+    }
+
+    private void drawWorld(Graphics g, WorldSnapshot snap, int width, int height, float alpha) {
+        int cameraOffset = lerp(snap.prevCameraOffset, snap.cameraOffset, alpha);
+        // The snapshot only holds entities near the view, so everything in it is drawn
+        EntityStore obstacles = snap.obstacles;
+        EntityStore collectibles = snap.collectibles;
+        if (assetsPending) pollAssets();
+        staticLayers.draw(g, snap, cameraOffset, width, height);
+        // Draw obstacles (with variable size), reusing one set of polygon arrays
+        g.setColor(Color.RED);
+        for (int i = 0; i < obstacles.size(); i++) {
+            int screenX = obstacles.x[i] - cameraOffset;
+            int top = obstacles.y[i], bottom = top + obstacles.h[i];
+            if (atlas != null) {
+                int sprite = SpriteAtlas.obstacleSprite(obstacles.w[i], obstacles.h[i]);
+                atlas.draw(g, sprite, screenX, top, obstacles.w[i], obstacles.h[i]);
+                continue;
+            }
+            polyX[0] = screenX;
+            polyX[1] = screenX + obstacles.w[i] / 2;
+            polyX[2] = screenX + obstacles.w[i];
+            polyY[0] = bottom;
+            polyY[1] = top;
+            polyY[2] = bottom;
+            g.fillPolygon(polyX, polyY, 3);
+        }
+        // Draw visible collectibles, erase if collected
+        g.setColor(Color.GREEN);
+        for (int i = 0; i < collectibles.size(); i++) {
+            if (collectibles.isCollected(i)) continue;
+            int screenX = collectibles.x[i] - cameraOffset;
+            if (atlas != null) {
+                atlas.draw(g, SpriteAtlas.COLLECTIBLE, screenX, collectibles.y[i], collectibles.w[i], collectibles.h[i]);
+            } else {
+                g.fillRect(screenX, collectibles.y[i], collectibles.w[i], collectibles.h[i]);
+            }
+        }
+        // Draw the trail and effect particles behind the player
+        particleRenderer.draw(g, snap.particles, cameraOffset, alpha, width);
+        int playerX = lerp(snap.prevPlayerX, snap.playerX, alpha);
+        int characterY = snap.characterY;
+        int characterR = snap.characterR;
+        // Draw player (blink white if hit)
+        int jumpY = lerp(snap.prevJumpY, snap.jumpY, alpha);
+        if (atlas != null) {
+            int sprite = snap.blinking ? SpriteAtlas.DINO_HIT : SpriteAtlas.DINO;
+            atlas.draw(g, sprite, playerX, characterY - jumpY, characterR, characterR);
+        } else {
+            g.setColor(snap.blinking ? Color.WHITE : Color.BLUE);
+            g.fillOval(playerX, characterY - jumpY, characterR, characterR);
+        }
+    }
+
+    // Drawn over the world at native resolution
+    private void drawHud(Graphics g, WorldSnapshot snap, int width, int height) {
+        updateHudText(snap);
+        g.setColor(Color.BLACK);
+        g.drawString(levelText, 10, 20);
+        g.drawString(healthText, 10, 40);
+        g.drawString(collectedText, 10, 60);
+        if (world.isEndless()) {
+            g.drawChars(distanceText, 0, distanceTextLength, 10, 80);
+        }
+        if (showEndUI) {
+            g.setColor(END_OVERLAY_COLOR);
+            g.fillRect(0, 0, width, height);
+            g.setFont(END_TITLE_FONT);
+            g.setColor(levelCleared ? Color.GREEN : Color.RED);
+            g.drawString(endTitleText, 220, 120);
+            g.setFont(END_TEXT_FONT);
+            g.setColor(Color.WHITE);
+            g.drawString(collectedText, 320, 170);
+            if (!levelCleared && !world.isEndless() && snap.getCollectedPercent() < 70.0) {
+                g.setColor(Color.ORANGE);
+                g.setFont(END_WARNING_FONT);
+                g.drawString("uh oh you collected less than the minimum (70%) of collectibles", 170, 200);
+            }
+        }
+    }
+
+    // Picks up images the loader has finished since the last frame
+    private void pollAssets() {
+        if (bgFuture.isDone() && atlasFuture.isDone()) assetsPending = false;
+        if (bgImage == null) {
+            bgImage = Assets.poll(bgFuture);
+            if (bgImage != null) staticLayers.setBackground(bgImage);
+        }
+        if (atlas == null) atlas = Assets.poll(atlasFuture);
+    }
+
+    private static int lerp(int from, int to, float alpha) {
+        return from + Math.round((to - from) * alpha);
+    }
+
+    private void updateHudText(WorldSnapshot snap) {
+        int health = snap.health;
+        if (health != shownHealth) {
+            shownHealth = health;
+            healthText = "Health: " + health;
+        }
+        int collectedCount = snap.collectedCount;
+        if (collectedCount != shownCollected) {
+            shownCollected = collectedCount;
+            collectedText = world.isEndless()
+                ? "Collected: " + collectedCount
+                : "Collected: " + collectedCount + "/" + snap.requiredCollectibles;
+        }
+        int distance = snap.cameraOffset / PIXELS_PER_METER;
+        if (world.isEndless() && distance != shownDistance) {
+            shownDistance = distance;
+            distanceTextLength = formatDistance(distanceText, distance);
+        }
+    }
+
+    // Writes "Distance: <n> m" into buf and returns its length, without building a String
+    private static int formatDistance(char[] buf, int meters) {
+        int pos = "Distance: ".length();
+        int digits = 1;
+        for (int v = meters; v >= 10; v /= 10) digits++;
+        for (int i = pos + digits - 1, v = meters; i >= pos; i--, v /= 10) {
+            buf[i] = (char) ('0' + v % 10);
+        }
+        pos += digits;
+        buf[pos++] = ' ';
+        buf[pos++] = 'm';
+        return pos;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if (showEndUI) return;
+        repaint();
+    }
+
+    // Once the level is over the simulation keeps running effects for a moment before onLevelEnd
+    void runEffectsTick() {
+        world.stepEffects();
+    }
+
+    // Advances the world one tick with the input queued since the last one; runs on the
+    // simulation thread and returns true once the level is over
+    boolean runTick() {
+        if (levelEdited.get() && levelEdited.getAndSet(false)) reloadLevel();
+        int input = inputQueue.drain();
+        if (runLog != null) runLog.record(world.getTick(), input);
+        if (perf.isActive()) {
+            TickEvent event = new TickEvent();
+            event.begin();
+            long start = System.nanoTime();
+            world.step(input);
+            perf.recordTick(start, System.nanoTime());
+            event.level = level;
+            event.tick = world.getTick();
+            event.commit();
+        } else {
+            world.step(input);
+        }
+        if (telemetry != null) telemetry.publish(world);
+        return world.isOver();
+    }
+
+    // Dev mode: a level file changed on disk; the simulation picks it up before its next tick
+    void levelEdited() {
+        levelEdited.set(true);
+    }
+
+    // Swaps in the newest version of the level being played, if it has been edited, keeping the
+    // player and the camera where they are; runs on the simulation thread, or on the EDT from
+    // restartLevel while the simulation is stopped
+    private void reloadLevel() {
+        LevelData data = world.getLevelData();
+        if (world.isEndless() || data == null) return;
+        LevelData latest = LevelData.latestVersion(data);
+        if (latest == data) return;
+        world.reload(latest);
+        runLog = null; // the run so far was played on another version of the level
+    }
+
+    // Called on the EDT once the simulation has stopped at the end of the level; may also be
+    // reached from resume() while the simulation's own call is still queued
+    void onLevelEnd() {
+        if (showEndUI) return;
+        timer.stop();
+        if (activeLoop != null) {
+            activeLoop.stop();
+            activeLoop.getCanvas().setVisible(false);
+        }
+        levelCleared = world.isLevelCleared();
+        showEndUI = true;
+        saveRunLog();
+        String msg = levelCleared ? "Level Cleared!" : "Level Failed";
+        endTitleText = world.isEndless()
+            ? "Run Over (" + world.getCameraOffset() / PIXELS_PER_METER + " m)"
+            : msg + String.format(" (%.0f%%)", world.getCollectedPercent());
+        if (levelCleared && level < 5) {
+            mainFrame.unlockLevel(level + 1);
+        }
+        showEndButtons();
+        repaint();
+    }
+
+    private void saveRunLog() {
+        if (runLog == null) return;
+        runLog.finish(world);
+        String name = (world.isEndless() ? "endless" : "level" + level) + "-"
+            + LocalDateTime.now().format(RUN_FILE_TIME) + ".dlog";
+        try {
+            Path dir = Paths.get(System.getProperty("dino.replayDir", "replays"));
+            Files.createDirectories(dir);
+            runLog.write(dir.resolve(name));
+        } catch (IOException ex) {
+            System.err.println("Could not save run " + name + ": " + ex.getMessage());
+        }
+    }
+
+    private void showEndButtons() {
+        if (endPanel != null) remove(endPanel);
+        endPanel = new JPanel(null);
+        endPanel.setOpaque(false);
+        endPanel.setBounds(0, 0, getWidth(), getHeight());
+        JButton retryBtn = new JButton("Retry");
+        retryBtn.setBounds(250, 220, 100, 40);
+        retryBtn.addActionListener(e -> restartLevel());
+        endPanel.add(retryBtn);
+        JButton menuBtn = new JButton("Main Menu");
+        menuBtn.setBounds(370, 220, 120, 40);
+        menuBtn.addActionListener(e -> mainFrame.showMainMenu());
+        endPanel.add(menuBtn);
+        if (levelCleared) {
+            JButton contBtn = new JButton("Continue");
+            contBtn.setBounds(510, 220, 120, 40);
+            contBtn.addActionListener(e -> {
+                if (level < 5) {
+                    mainFrame.startGame(level + 1);
+                } else {
+                    mainFrame.showMainMenu();
+                }
+            });
+            endPanel.add(contBtn);
+        }
+        add(endPanel);
+        endPanel.repaint();
+        endPanel.revalidate();
+    }
+
+    private void restartLevel() {
+        showEndUI = false;
+        levelCleared = false;
+        if (endPanel != null) remove(endPanel);
+        inputQueue.clear();
+        if (levelEdited.getAndSet(false)) reloadLevel(); // edited while the end screen was up
+        world.restart();
+        staticLayers.invalidate();
+        runLog = RunLog.canRecord(world) ? RunLog.begin(world) : null; // dropped if the level was reloaded
+        start();
+        requestFocusInWindow();
+        repaint();
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_SPACE || key == KeyEvent.VK_UP) {
+            inputQueue.offer(GameWorld.INPUT_JUMP);
+        }
+        if (key == KeyEvent.VK_RIGHT) {
+            inputQueue.offer(GameWorld.INPUT_RIGHT);
+        }
+        if (key == KeyEvent.VK_LEFT) {
+            inputQueue.offer(GameWorld.INPUT_LEFT);
+        }
+        if (key == KeyEvent.VK_F3) {
+            perf.toggleOverlay();
+            repaint();
+        }
+    }
+    @Override public void keyReleased(KeyEvent e) {}
+    @Override public void keyTyped(KeyEvent e) {}
+}
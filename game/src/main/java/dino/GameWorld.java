@@ -0,0 +1,624 @@
+package dino;
+
+// Headless game simulation: all level state and the per-tick update, with no Swing in sight.
+// GamePanel feeds it input through step() and only renders from it, so the same logic can
+// run with no display, as fast as the CPU allows.
+public class GameWorld {
+    // Input passed to step(): a jump bit, and how many times each arrow was pressed during the
+    // tick, each press moving the player MOVE_STEP as it always has. INPUT_LEFT and INPUT_RIGHT
+    // are one press; mergeInput() adds presses up. The whole input fits in a byte (see RunLog).
+    public static final int INPUT_JUMP = 1;
+    public static final int INPUT_LEFT = 1 << 1;
+    public static final int INPUT_RIGHT = 1 << 4;
+    private static final int PRESS_MASK = 7; // presses counted per direction and tick, at most
+
+    // Why a run ended, from getEndReason()
+    public static final int END_NONE = 0; // still running
+    public static final int END_CLEARED = 1;
+    public static final int END_HOLE = 2; // fell into a hole
+    public static final int END_HEALTH = 3; // obstacle hits used up all health
+    public static final int END_COLLECTIBLES = 4; // reached the finish short of 70% collected
+
+    public static final int TICK_MILLIS = 20;
+    public static final int TRAIL_LENGTH = 10; // ticks a trail dot lasts
+    public static final int TRAIL_SPACING = 18; // px each trail dot drifts back per tick
+    public static final int MAX_PARTICLES = 4096;
+    private static final int BLINK_DURATION = 8; // ~160ms at 20ms per tick
+    static final int MOVE_STEP = 20; // px per arrow press
+    static final int HIT_DAMAGE = 10; // health lost per obstacle hit
+    // Endless mode: how far ahead of and behind the camera content is kept, and how the speed ramps
+    private static final int STREAM_AHEAD = 800 + EndlessGenerator.CHUNK_WIDTH;
+    private static final int EVICT_BEHIND = EndlessGenerator.CHUNK_WIDTH;
+    private static final int RAMP_TICKS = 500; // +1 px/tick every 10 seconds
+    private static final int MAX_ENDLESS_SPEED = 18;
+
+    private LevelData data; // null in endless mode
+    private LevelConfig config; // null for levels loaded as data
+    private int level = 1;
+    private int health = 50;
+    private int collectedCount = 0;
+    private int requiredCollectibles = 8;
+    private int characterY = 250, characterR = 40;
+    private boolean isJumping = false;
+    private int jumpY = 0;
+    private int jumpPeak = 180; // Higher jump
+    private int jumpStep = 15;
+    private boolean falling = false;
+    private int levelLength = 0; // will be set dynamically
+    private int playerX = 100; // player's horizontal position in the level
+    private int cameraOffset = 0; // how much the world has scrolled
+    private int startHealth = 50;
+    private boolean blink = false;
+    private int blinkTicks = 0;
+    private boolean over = false;
+    private boolean levelCleared = false;
+    private int endReason = END_NONE;
+    private int tick = 0;
+    // State as of the previous tick, for render interpolation
+    private int prevCameraOffset = 0;
+    private int prevPlayerX = 100;
+    private int prevJumpY = 0;
+    // The player collides as it is drawn: the dino's outline, or the circle drawn without sprites.
+    // Which of the two was settled at startup (see SpriteShapes.resolve).
+    private final CollisionMask playerMask = playerMask(characterR);
+    // The player's path through the current tick, in world coordinates, for swept collision
+    private int fromX, fromTop, toX, toTop;
+
+    // Obstacles, collectibles and holes, each in an x-sorted column store
+    private final EntityStore obstacles = new EntityStore();
+    private final EntityStore collectibles = new EntityStore();
+    private final EntityStore holes = new EntityStore();
+    private int collectibleBase = 0; // collectibles an endless run has dropped from the front of the store
+    // Bumped by each reload() that changed the ground, with the world x range it changed, for
+    // renderers that cache the ground (see StaticLayerCache)
+    private int layoutVersion = 0;
+    private int layoutChangeFrom = 0, layoutChangeTo = 0;
+    // The level being swapped in by reload(), decoded into stores kept for the next reload
+    private EntityStore nextObstacles, nextCollectibles, nextHoles;
+    private int obstacleSpeed = 7;
+
+    // Indexes over the stores above, shared by collision and rendering
+    private final SpatialIndex obstacleIndex = new SpatialIndex(obstacles);
+    private final SpatialIndex collectibleIndex = new SpatialIndex(collectibles);
+    private final SpatialIndex holeIndex = new SpatialIndex(holes);
+
+    private EndlessGenerator generator; // null for fixed levels
+
+    // Trail and effect particles; cosmetic, but stepped with the world so they stay in sync with it
+    private final ParticleSystem particles = new ParticleSystem(MAX_PARTICLES);
+    private boolean effects = true; // off for headless searches that never draw (see setEffects)
+
+    public GameWorld(int level) {
+        this(LevelData.builtin(level));
+    }
+
+    public GameWorld(LevelData data) {
+        load(data);
+    }
+
+    // An endless run, or a level generated from the config's numbers
+    public GameWorld(LevelConfig config) {
+        load(config);
+    }
+
+    // Switches to another level, leaving the world as a new GameWorld for it would be;
+    // the stores keep their capacity, so moving between levels allocates nothing here
+    public void load(LevelData data) {
+        this.data = data;
+        this.config = null;
+        this.level = data.level;
+        this.generator = null;
+        resetPlayer();
+        setupLevel();
+    }
+
+    public void load(LevelConfig config) {
+        this.data = config.endless ? null : LevelCompiler.generate(config);
+        this.config = config;
+        this.level = config.pattern;
+        this.generator = config.endless ? new EndlessGenerator(config.seed) : null;
+        resetPlayer();
+        setupLevel();
+    }
+
+    // The player's starting state; restart() keeps position and jump state, loading a level doesn't
+    private void resetPlayer() {
+        health = 50;
+        startHealth = 50;
+        collectedCount = 0;
+        isJumping = false;
+        jumpY = 0;
+        falling = false;
+        playerX = 100;
+        blink = false;
+        blinkTicks = 0;
+    }
+
+    public void setupLevel() {
+        over = false;
+        levelCleared = false;
+        endReason = END_NONE;
+        tick = 0;
+        collectibleBase = 0;
+        resetParticles();
+        if (generator != null) {
+            setupEndless();
+            return;
+        }
+        // Fixed levels are copied out of their level data as they are; nothing is laid out here
+        data.copyInto(obstacles, collectibles, holes);
+        requiredCollectibles = data.requiredCollectibles;
+        obstacleSpeed = data.speed;
+        levelLength = data.levelLength;
+        cameraOffset = 0;
+        startHealth = health;
+        prevCameraOffset = cameraOffset;
+        prevPlayerX = playerX;
+        prevJumpY = jumpY;
+        resetIndexes();
+    }
+
+    private void resetParticles() {
+        particles.clear();
+        particles.reseed((int) getSeed() ^ level);
+    }
+
+    // Level data and endless chunks both arrive sorted by x, so the indexes only need rewinding
+    private void resetIndexes() {
+        obstacleIndex.reset();
+        collectibleIndex.reset();
+        holeIndex.reset();
+    }
+
+    // Endless runs have no finish line: content is streamed in chunks as the camera moves
+    private void setupEndless() {
+        obstacles.clear();
+        collectibles.clear();
+        holes.clear();
+        generator.reset();
+        requiredCollectibles = config.requiredCollectibles;
+        obstacleSpeed = config.speed;
+        levelLength = Integer.MAX_VALUE;
+        cameraOffset = 0;
+        startHealth = health;
+        prevCameraOffset = cameraOffset;
+        prevPlayerX = playerX;
+        prevJumpY = jumpY;
+        resetIndexes();
+        streamEndless();
+    }
+
+    // Generates chunks until the lookahead is covered and drops everything well behind the
+    // camera, so the stores (and memory) stay the same size however long the run lasts
+    private void streamEndless() {
+        while (generator.generatedUpTo() < cameraOffset + STREAM_AHEAD) {
+            generator.generateChunk(obstacleSpeed, obstacles, collectibles, holes);
+        }
+        int behind = cameraOffset - EVICT_BEHIND;
+        obstacles.removeFirst(countBehind(obstacles, behind));
+        int dropped = countBehind(collectibles, behind);
+        collectibles.removeFirst(dropped);
+        collectibleBase += dropped;
+        holes.removeFirst(countBehind(holes, behind));
+    }
+
+    private static int countBehind(EntityStore store, int behind) {
+        int n = 0;
+        while (n < store.size() && store.x[n] + store.w[n] < behind) n++;
+        return n;
+    }
+
+    // --- Unique obstacle patterns per level, all obstacles on the platform ---
+    // Size of the i-th obstacle: 0 = base 40x40, 1 = 60x50, 2 = 80x60
+    static int obstacleSize(int pattern, int i) {
+        switch (pattern) {
+            case 2: return i % 5 == 2 ? 1 : 0;
+            case 3: return i % 6 == 3 ? 2 : i % 4 == 1 ? 1 : 0;
+            case 4: return i % 3 == 0 ? 2 : i % 4 == 2 ? 1 : 0;
+            case 5: return i % 2 == 0 ? 2 : i % 3 == 0 ? 1 : 0;
+            default: return 0;
+        }
+    }
+
+    // Reset score and health and lay the level out again
+    public void restart() {
+        collectedCount = 0;
+        health = startHealth;
+        setupLevel();
+    }
+
+    // Play the current layout again from the start without laying the level out again.
+    // Player state carries over the same way it does for restart().
+    public void rewind() {
+        if (generator != null) {
+            restart(); // evicted content has to be generated again anyway
+            return;
+        }
+        collectedCount = 0;
+        health = startHealth;
+        collectibles.clearCollected();
+        over = false;
+        levelCleared = false;
+        endReason = END_NONE;
+        tick = 0;
+        resetParticles();
+        cameraOffset = 0;
+        prevCameraOffset = cameraOffset;
+        prevPlayerX = playerX;
+        prevJumpY = jumpY;
+    }
+
+    // Swaps in an edited version of the fixed level being played, between ticks, keeping the
+    // player, the camera and the tick where they are. Each store only has the run of entries that
+    // differs from the new data replaced; the entries before and after it stay, collected flags
+    // included, so the cost is a scan for the first and last difference and a shift of the tail,
+    // and the spatial indexes' cursors just walk over the change on their next query.
+    // Returns the number of entries replaced, added or removed across the three stores.
+    public int reload(LevelData next) {
+        if (generator != null) throw new IllegalStateException("Endless runs have no level data to reload");
+        if (nextObstacles == null) {
+            nextObstacles = new EntityStore();
+            nextCollectibles = new EntityStore();
+            nextHoles = new EntityStore();
+        }
+        next.copyInto(nextObstacles, nextCollectibles, nextHoles);
+        int changed = splice(obstacles, nextObstacles) + splice(collectibles, nextCollectibles);
+        // The ground is cached by the renderer, so note where holes or the finish line moved
+        int groundFrom = Integer.MAX_VALUE, groundTo = Integer.MIN_VALUE;
+        int first = holes.commonPrefix(nextHoles);
+        int oldEnd = holes.size() - holes.commonSuffix(nextHoles, first);
+        int newEnd = nextHoles.size() - (holes.size() - oldEnd);
+        for (int i = first; i < oldEnd; i++) {
+            groundFrom = Math.min(groundFrom, holes.x[i]);
+            groundTo = Math.max(groundTo, holes.x[i] + holes.w[i]);
+        }
+        for (int i = first; i < newEnd; i++) {
+            groundFrom = Math.min(groundFrom, nextHoles.x[i]);
+            groundTo = Math.max(groundTo, nextHoles.x[i] + nextHoles.w[i]);
+        }
+        holes.replaceRange(first, oldEnd, nextHoles, first, newEnd);
+        changed += Math.max(oldEnd, newEnd) - first;
+        if (next.levelLength != levelLength) {
+            groundFrom = Math.min(groundFrom, Math.min(levelLength, next.levelLength));
+            groundTo = Math.max(groundTo, Math.max(levelLength, next.levelLength) + 10); // finish line width
+        }
+        if (groundFrom < groundTo) {
+            layoutVersion++;
+            layoutChangeFrom = groundFrom;
+            layoutChangeTo = groundTo;
+        }
+        data = next;
+        requiredCollectibles = next.requiredCollectibles;
+        obstacleSpeed = next.speed;
+        levelLength = next.levelLength;
+        collectedCount = collectibles.collectedCount(); // collected ones may have been edited away
+        return changed;
+    }
+
+    // Makes 'store' hold the same entries as 'next' by replacing the run between their common
+    // prefix and suffix; returns the length of the longer side of that run
+    private static int splice(EntityStore store, EntityStore next) {
+        int first = store.commonPrefix(next);
+        int suffix = store.commonSuffix(next, first);
+        int oldEnd = store.size() - suffix, newEnd = next.size() - suffix;
+        store.replaceRange(first, oldEnd, next, first, newEnd);
+        return Math.max(oldEnd, newEnd) - first;
+    }
+
+    // Puts the player in the state a recorded run started from (see RunLog)
+    public void restorePlayer(int playerX, int jumpY, boolean jumping, boolean falling, int blinkTicks) {
+        this.playerX = playerX;
+        this.jumpY = jumpY;
+        this.isJumping = jumping;
+        this.falling = falling;
+        this.blinkTicks = blinkTicks;
+        this.blink = blinkTicks > 0;
+        prevPlayerX = playerX;
+        prevJumpY = jumpY;
+    }
+
+    // Particles are cosmetic and never feed back into the game, so a search that steps millions
+    // of throwaway states can leave them out
+    void setEffects(boolean effects) {
+        this.effects = effects;
+        if (!effects) particles.clear();
+    }
+
+    // Puts a fixed level's world at the start of 'tick' with the given player, as a run that got
+    // there would have left it, collected flags aside (the caller sets those). Lets a search
+    // branch from any state it has reached without playing the inputs that led there again.
+    void seek(int tick, int playerX, int jumpY, boolean jumping, boolean falling, int blinkTicks,
+              int health, int collectedCount) {
+        if (generator != null) throw new IllegalStateException("Endless runs can't seek");
+        this.tick = tick;
+        cameraOffset = tick * obstacleSpeed;
+        restorePlayer(playerX, jumpY, jumping, falling, blinkTicks);
+        this.health = health;
+        this.collectedCount = collectedCount;
+        over = false;
+        levelCleared = false;
+        endReason = END_NONE;
+    }
+
+    // Apply one tick of input, then advance the simulation by one tick
+    public void step(int input) {
+        stepEffects();
+        applyInput(input);
+        update();
+    }
+
+    // Advances only the particles, leaving the game as it is; used once a level is over so the
+    // last bursts can play out before the end screen
+    public void stepEffects() {
+        prevCameraOffset = cameraOffset;
+        prevPlayerX = playerX;
+        prevJumpY = jumpY;
+        if (effects) particles.update();
+    }
+
+    public void applyInput(int input) {
+        if ((input & INPUT_JUMP) != 0 && !isJumping) {
+            isJumping = true;
+            falling = false;
+        }
+        playerX += (rightPresses(input) - leftPresses(input)) * MOVE_STEP;
+    }
+
+    // 'input' with the key events of 'event' added: jumps are the same however often they are
+    // pressed, each arrow press counts, up to PRESS_MASK per direction
+    public static int mergeInput(int input, int event) {
+        int left = Math.min(PRESS_MASK, leftPresses(input) + leftPresses(event));
+        int right = Math.min(PRESS_MASK, rightPresses(input) + rightPresses(event));
+        return ((input | event) & INPUT_JUMP) | left * INPUT_LEFT | right * INPUT_RIGHT;
+    }
+
+    public static int leftPresses(int input) {
+        return (input / INPUT_LEFT) & PRESS_MASK;
+    }
+
+    public static int rightPresses(int input) {
+        return (input / INPUT_RIGHT) & PRESS_MASK;
+    }
+
+    private void update() {
+        if (over) return;
+        tick++;
+        // Move world (camera) forward
+        if (generator != null) {
+            obstacleSpeed = Math.min(MAX_ENDLESS_SPEED, config.speed + tick / RAMP_TICKS);
+        }
+        cameraOffset += obstacleSpeed;
+        if (generator != null) streamEndless();
+        // Handle jump
+        if (isJumping) {
+            if (jumpY < jumpPeak && !falling) {
+                jumpY += jumpStep;
+                if (jumpY >= jumpPeak) falling = true;
+            } else if (falling) {
+                jumpY -= jumpStep;
+                if (jumpY <= 0) {
+                    jumpY = 0;
+                    isJumping = false;
+                    falling = false;
+                }
+            }
+        }
+        int charTop = characterY - jumpY;
+        int playerWorldX = cameraOffset + playerX;
+        // Collisions are tested along the player's whole path through the tick, not only where
+        // it ends up, so nothing can be skipped however far the world scrolls in one tick
+        fromX = prevCameraOffset + prevPlayerX;
+        fromTop = characterY - prevJumpY;
+        toX = playerWorldX;
+        toTop = charTop;
+        int sweepStart = Math.min(fromX, toX);
+        int sweepEnd = Math.max(fromX, toX) + characterR;
+        // Collectible collision (all at once, erase after collected)
+        collectibleIndex.query(sweepStart, sweepEnd);
+        for (int i = collectibleIndex.start; i < collectibleIndex.end; i++) {
+            if (!collectibles.isCollected(i) && hitsCollectible(i)) {
+                collectibles.setCollected(i);
+                collectedCount++;
+                if (effects) particles.burst(ParticleSystem.SPARKLE, 10, collectibles.x[i] + collectibles.w[i] / 2f,
+                    collectibles.y[i] + collectibles.h[i] / 2f, 3f, 1.5f, 12, 20);
+            }
+        }
+        // Obstacle collision: the player's outline against the obstacle's, whatever its size
+        obstacleIndex.query(sweepStart, sweepEnd);
+        for (int i = obstacleIndex.start; i < obstacleIndex.end; i++) {
+            if (hitsObstacle(i)) {
+                if (!blink) { // Only trigger blink if not already blinking
+                    health -= HIT_DAMAGE;
+                    blink = true;
+                    blinkTicks = BLINK_DURATION;
+                    if (effects) particles.burst(ParticleSystem.SPARK, 12, playerWorldX + characterR,
+                        charTop + characterR / 2f, 4f, 2f, 8, 16);
+                }
+            }
+        }
+        // Handle blink duration
+        if (blink) {
+            blinkTicks--;
+            if (blinkTicks <= 0) {
+                blink = false;
+            }
+        }
+        // Check for player death
+        if (health <= 0) {
+            health = 0;
+            over = true;
+            levelCleared = false;
+            endReason = END_HEALTH;
+            return;
+        }
+        // Check for falling into a hole
+        boolean inHole = false;
+        holeIndex.query(sweepStart, sweepEnd - characterR + 1);
+        for (int i = holeIndex.start; i < holeIndex.end; i++) {
+            if (overHole(i)) {
+                inHole = true;
+                break;
+            }
+        }
+        if (inHole) {
+            if (effects) particles.burst(ParticleSystem.DUST, 24, playerWorldX + characterR / 2f,
+                characterY + characterR, 2.5f, 3f, 16, 28);
+            over = true;
+            levelCleared = false;
+            endReason = END_HOLE;
+            return;
+        }
+        // Check for finish line
+        if (cameraOffset + playerX >= levelLength) {
+            double percent = (double) collectedCount / requiredCollectibles * 100.0;
+            levelCleared = percent >= 70.0;
+            over = true;
+            endReason = levelCleared ? END_CLEARED : END_COLLECTIBLES;
+            return;
+        }
+        // Drop a trail dot behind the player; it drifts back against the scroll as it fades
+        if (effects) particles.spawn(ParticleSystem.TRAIL, playerWorldX - TRAIL_SPACING / 2f,
+            characterY - jumpY + characterR / 2f, obstacleSpeed - TRAIL_SPACING, 0f, TRAIL_LENGTH);
+    }
+
+    // Broad phase: the player's box meets the collectible's somewhere along the path
+    private boolean meetsCollectible(int i) {
+        return sweptOverlaps(fromX, fromTop, toX, toTop, characterR, characterR,
+            collectibles.x[i], collectibles.y[i], collectibles.w[i], collectibles.h[i]);
+    }
+
+    // Narrow phase: the player's outline touches the collectible's
+    private boolean hitsCollectible(int i) {
+        if (!meetsCollectible(i)) return false;
+        CollisionMask mask = collectibleMask(collectibles.w[i], collectibles.h[i]);
+        return pathHits(mask, collectibles.x[i], collectibles.y[i]);
+    }
+
+    private boolean meetsObstacle(int i) {
+        return sweptOverlaps(fromX, fromTop, toX, toTop, characterR, characterR,
+            obstacles.x[i], obstacles.y[i], obstacles.w[i], obstacles.h[i]);
+    }
+
+    // Narrow phase: the player's outline touches the obstacle's
+    private boolean hitsObstacle(int i) {
+        if (!meetsObstacle(i)) return false;
+        CollisionMask mask = obstacleMask(obstacles.w[i], obstacles.h[i]);
+        return pathHits(mask, obstacles.x[i], obstacles.y[i]);
+    }
+
+    // Tests the player's mask against 'mask' at (mx, my) at every pixel step along the path
+    private boolean pathHits(CollisionMask mask, int mx, int my) {
+        int dx = toX - fromX, dy = toTop - fromTop;
+        int n = Math.max(1, Math.max(Math.abs(dx), Math.abs(dy)));
+        for (int k = 0; k <= n; k++) {
+            int x = fromX + Math.floorDiv(2 * dx * k + n, 2 * n);
+            int y = fromTop + Math.floorDiv(2 * dy * k + n, 2 * n);
+            if (playerMask.overlaps(x, y, mask, mx, my)) return true;
+        }
+        return false;
+    }
+
+    // The shapes the narrow phase tests, for each kind of entity at a given size: the outline of
+    // its sprite, or without sprites the plain shape GamePanel draws instead
+    static CollisionMask playerMask(int size) {
+        return outline(SpriteAtlas.DINO, CollisionMask.OVAL, size, size);
+    }
+
+    static CollisionMask obstacleMask(int w, int h) {
+        return outline(SpriteAtlas.obstacleSprite(w, h), CollisionMask.TRIANGLE, w, h);
+    }
+
+    static CollisionMask collectibleMask(int w, int h) {
+        return outline(SpriteAtlas.COLLECTIBLE, CollisionMask.RECT, w, h);
+    }
+
+    private static CollisionMask outline(int sprite, int shape, int w, int h) {
+        return CollisionMask.of(SpriteShapes.shared() != null ? CollisionMask.SPRITE + sprite : shape, w, h);
+    }
+
+    // Only counts while the player is on the ground: for the whole tick, or just at the start of
+    // a jump or the end of a landing
+    private boolean overHole(int i) {
+        // 25px safe zone on each side of the hole
+        int hitboxStart = holes.x[i] + 25;
+        int hitboxEnd = holes.x[i] + holes.w[i] - 25;
+        boolean groundedFrom = fromTop == characterY, groundedTo = toTop == characterY;
+        if (groundedFrom && groundedTo) {
+            return Math.min(fromX, toX) < hitboxEnd && Math.max(fromX, toX) >= hitboxStart;
+        }
+        if (groundedTo) return toX >= hitboxStart && toX < hitboxEnd;
+        if (groundedFrom) return fromX >= hitboxStart && fromX < hitboxEnd;
+        return false;
+    }
+
+    // Same test as java.awt.Rectangle.intersects, without the allocation
+    static boolean overlaps(int x1, int y1, int w1, int h1, int x2, int y2, int w2, int h2) {
+        if (w1 <= 0 || h1 <= 0 || w2 <= 0 || h2 <= 0) return false;
+        return x2 < x1 + w1 && y2 < y1 + h1 && x1 < x2 + w2 && y1 < y2 + h2;
+    }
+
+    // overlaps() for a w1 x h1 box moving in a straight line from (x0, y0) to (x1, y1) over the
+    // tick: true if it meets the fixed box (x2, y2, w2, h2) at any point along the way. On each
+    // axis the boxes overlap for an open interval of time; they meet if the intervals do, within
+    // the tick. At the end of the tick this is exactly overlaps().
+    static boolean sweptOverlaps(int x0, int y0, int x1, int y1, int w1, int h1, int x2, int y2, int w2, int h2) {
+        if (w1 <= 0 || h1 <= 0 || w2 <= 0 || h2 <= 0) return false;
+        int dx = x1 - x0, dy = y1 - y0;
+        double enter = Math.max(enterTime(x0, dx, x2 - w1, x2 + w2), enterTime(y0, dy, y2 - h1, y2 + h2));
+        double leave = Math.min(leaveTime(x0, dx, x2 - w1, x2 + w2), leaveTime(y0, dy, y2 - h1, y2 + h2));
+        return enter < leave && enter < 1 && leave > 0;
+    }
+
+    // When p0 + t * d enters and leaves the open range (lo, hi)
+    private static double enterTime(int p0, int d, int lo, int hi) {
+        if (d == 0) return lo < p0 && p0 < hi ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        return (double) ((d > 0 ? lo : hi) - p0) / d;
+    }
+
+    private static double leaveTime(int p0, int d, int lo, int hi) {
+        if (d == 0) return lo < p0 && p0 < hi ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        return (double) ((d > 0 ? hi : lo) - p0) / d;
+    }
+
+    public int getLevel() { return level; }
+    public LevelData getLevelData() { return data; }
+    public boolean isEndless() { return generator != null; }
+    public long getSeed() { return config == null ? 0 : config.seed; }
+    public int getHealth() { return health; }
+    public int getCollectedCount() { return collectedCount; }
+    public int getRequiredCollectibles() { return requiredCollectibles; }
+    public int getCharacterY() { return characterY; }
+    public int getCharacterR() { return characterR; }
+    public int getJumpY() { return jumpY; }
+    public boolean isJumping() { return isJumping; }
+    public boolean isFalling() { return falling; }
+    public int getLevelLength() { return levelLength; }
+    public int getPlayerX() { return playerX; }
+    public int getCameraOffset() { return cameraOffset; }
+    public int getPrevCameraOffset() { return prevCameraOffset; }
+    public int getPrevPlayerX() { return prevPlayerX; }
+    public int getPrevJumpY() { return prevJumpY; }
+    public boolean isBlinking() { return blink; }
+    public int getBlinkTicks() { return blinkTicks; }
+    public boolean isOver() { return over; }
+    public boolean isLevelCleared() { return levelCleared; }
+    public int getEndReason() { return endReason; }
+    public int getTick() { return tick; }
+    public int getObstacleSpeed() { return obstacleSpeed; }
+    public ParticleSystem getParticles() { return particles; }
+    public EntityStore getObstacles() { return obstacles; }
+    public EntityStore getCollectibles() { return collectibles; }
+    // Running number of the collectible at index 0 of the store, counting from the start of the level
+    public int getCollectibleBase() { return collectibleBase; }
+    public EntityStore getHoles() { return holes; }
+    public int getLayoutVersion() { return layoutVersion; }
+    public int getLayoutChangeFrom() { return layoutChangeFrom; }
+    public int getLayoutChangeTo() { return layoutChangeTo; }
+    public SpatialIndex getObstacleIndex() { return obstacleIndex; }
+    public SpatialIndex getCollectibleIndex() { return collectibleIndex; }
+    public SpatialIndex getHoleIndex() { return holeIndex; }
+
+    public double getCollectedPercent() {
+        return requiredCollectibles == 0 ? 0 : (double) collectedCount / requiredCollectibles * 100.0;
+    }
+}
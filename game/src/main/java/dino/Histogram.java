@@ -0,0 +1,59 @@
+package dino;
+
+import java.util.Arrays;
+
+// Log-linear histogram of durations in nanoseconds: 8 buckets per power of two, so any
+// percentile read back is within 12.5% of the true value. Recording is a few shifts and an
+// increment into a fixed array, cheap enough to do on every tick and frame.
+public class Histogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final long[] counts = new long[64 * SUB];
+    private long total = 0;
+    private long max = 0;
+
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts[index(v)]++;
+        total++;
+        if (v > max) max = v;
+    }
+
+    public long count() { return total; }
+    public long max() { return max; }
+
+    // Upper bound of the bucket holding the p-th fraction of values (0 < p <= 1)
+    public long percentile(double p) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long upper = lowerBound(i + 1) - 1;
+                return upper < 0 ? max : Math.min(max, upper);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int mantissa = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + mantissa;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB) return index;
+        int exp = index / SUB + SUB_BITS - 1;
+        return (long) (SUB + index % SUB) << (exp - SUB_BITS);
+    }
+}
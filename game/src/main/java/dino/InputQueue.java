@@ -0,0 +1,45 @@
+package dino;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free ring of key events, each one GameWorld input, from one producer (the EDT's key
+// handler) to one consumer (the simulation thread). Each side only writes its own counter, with
+// a release store the other side reads with acquire semantics, so neither ever blocks or spins
+// on the other.
+public class InputQueue {
+    private final int[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot to read; written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to write; written by the producer
+
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new int[size];
+        mask = size - 1;
+    }
+
+    // Producer side; returns false (dropping the event) if the consumer has fallen a full ring behind
+    public boolean offer(int bits) {
+        long t = tail.get();
+        if (t - head.get() == ring.length) return false;
+        ring[(int) t & mask] = bits;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Consumer side: takes everything queued so far as one tick's input, so two presses of an
+    // arrow key still move the player twice (see GameWorld.mergeInput)
+    public int drain() {
+        long h = head.get();
+        long t = tail.get();
+        int input = 0;
+        for (; h < t; h++) input = GameWorld.mergeInput(input, ring[(int) h & mask]);
+        head.lazySet(h);
+        return input;
+    }
+
+    // Consumer side: discards anything queued
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+}
@@ -0,0 +1,153 @@
+package dino;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+// Compiles the text description of a level into the binary format LevelData maps.
+//
+//   # comments and blank lines are ignored
+//   level 3                     obstacle pattern, also picks images/level3.png
+//   speed 11                    scroll speed in px per tick
+//   length 22000                world x of the finish line
+//   required 16                 collectibles that count as 100%
+//   obstacle <x> <y> <w> <h>
+//   collectible <x> <y> <w> <h>
+//   hole <x> <y> <w> <h>
+//
+// Entities may be listed in any order; each kind is sorted by x on the way out.
+// Usage: java -cp game/target/classes dino.LevelCompiler levels/level1.txt ...
+// writes levels/level1.dlvl next to each source.
+public class LevelCompiler {
+
+    public static LevelData compile(List<String> lines) {
+        int level = 1, speed = 0, length = 0, required = 0;
+        EntityStore obstacles = new EntityStore();
+        EntityStore collectibles = new EntityStore();
+        EntityStore holes = new EntityStore();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\\s+");
+            try {
+                switch (f[0]) {
+                    case "level": level = value(f); break;
+                    case "speed": speed = value(f); break;
+                    case "length": length = value(f); break;
+                    case "required": required = value(f); break;
+                    case "obstacle": addEntity(obstacles, f, EntityStore.OBSTACLE); break;
+                    case "collectible": addEntity(collectibles, f, EntityStore.COLLECTIBLE); break;
+                    case "hole": addEntity(holes, f, EntityStore.HOLE); break;
+                    default: throw new IllegalArgumentException("unknown keyword '" + f[0] + "'");
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("line " + (n + 1) + ": " + ex.getMessage(), ex);
+            }
+        }
+        if (speed <= 0) throw new IllegalArgumentException("missing or non-positive speed");
+        if (length <= 0) throw new IllegalArgumentException("missing or non-positive length");
+        obstacles.sortByX();
+        collectibles.sortByX();
+        holes.sortByX();
+        return LevelData.of(level, speed, length, required, obstacles, collectibles, holes);
+    }
+
+    public static void compile(Path source, Path target) throws IOException {
+        compile(Files.readAllLines(source, StandardCharsets.UTF_8)).write(target);
+    }
+
+    private static int value(String[] f) {
+        if (f.length != 2) throw new IllegalArgumentException("'" + f[0] + "' takes one value");
+        return Integer.parseInt(f[1]);
+    }
+
+    private static void addEntity(EntityStore store, String[] f, int flags) {
+        if (f.length != 5) throw new IllegalArgumentException("'" + f[0] + "' takes x y w h");
+        int w = Integer.parseInt(f[3]), h = Integer.parseInt(f[4]);
+        if (w <= 0 || h <= 0) throw new IllegalArgumentException("'" + f[0] + "' needs a positive size");
+        store.add(Integer.parseInt(f[1]), Integer.parseInt(f[2]), w, h, flags);
+    }
+
+    // Lays a level out from a config by spreading its obstacles, holes and collectibles evenly
+    // over the level's length. Used for synthetic levels too large to write out by hand.
+    public static LevelData generate(LevelConfig config) {
+        EntityStore obstacles = new EntityStore();
+        EntityStore collectibles = new EntityStore();
+        EntityStore holes = new EntityStore();
+        int numObstacles = config.numObstacles;
+        int levelTicks = config.levelSeconds * (1000 / GameWorld.TICK_MILLIS);
+        int levelDistance = config.speed * levelTicks;
+        if (numObstacles < 0 || config.numHoles < 0 || config.requiredCollectibles < 0) {
+            throw new IllegalArgumentException("negative count in level config");
+        }
+        // Obstacles start at 600 and stop 200 short of the end, holes keep 800 clear at each end
+        if (levelDistance <= 1600) {
+            throw new IllegalArgumentException("generated level is " + levelDistance
+                + " px long (seconds x speed x 50); it must be longer than 1600");
+        }
+        // --- Spread obstacles evenly throughout the level (a single one goes at the start) ---
+        int obsGap = numObstacles > 1 ? (levelDistance - 800) / (numObstacles - 1) : 0;
+        int[] obsX = new int[numObstacles];
+        for (int i = 0; i < numObstacles; i++) {
+            obsX[i] = 600 + i * obsGap;
+        }
+        // --- Spread holes over the level (only level 3 and above have any) ---
+        int numHoles = config.numHoles;
+        int holeW = 90;
+        int holeGap = (numHoles > 0) ? (levelDistance - 1600) / (numHoles + 1) : 0;
+        int holeX = 1400;
+        for (int i = 0; i < numHoles; i++) {
+            holes.add(holeX, 290, holeW, 30, EntityStore.HOLE);
+            holeX += holeGap;
+        }
+        // --- Move obstacles that overlap a hole to just after it ---
+        for (int i = 0; i < numObstacles; i++) {
+            int ox = obsX[i];
+            for (int j = 0; j < holes.size(); j++) {
+                if (ox + 40 > holes.x[j] && ox < holes.x[j] + holeW) {
+                    obsX[i] = Math.max(obsX[i], holes.x[j] + holeW + 20);
+                }
+            }
+        }
+        // Sized by the level's pattern, bottoms on the platform (y=290)
+        for (int i = 0; i < numObstacles; i++) {
+            int size = GameWorld.obstacleSize(config.pattern, i);
+            int w = 40 + size * 20, h = 40 + size * 10;
+            obstacles.add(obsX[i], 290 - h, w, h, EntityStore.OBSTACLE);
+        }
+        // --- Place collectibles: alternate high/low ---
+        int required = config.requiredCollectibles;
+        int colGap = (levelDistance - 1200) / (required + 1);
+        for (int i = 0; i < required; i++) {
+            int cy = (i % 2 == 0) ? 120 : 180;
+            collectibles.add(1200 + i * colGap, cy, 30, 30, EntityStore.COLLECTIBLE);
+        }
+        obstacles.sortByX();
+        collectibles.sortByX();
+        holes.sortByX();
+        return LevelData.of(config.pattern, config.speed, levelDistance, required, obstacles, collectibles, holes);
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: LevelCompiler <level.txt>...");
+            System.exit(2);
+        }
+        for (String arg : args) {
+            Path source = Paths.get(arg);
+            String name = source.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            Path target = source.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".dlvl");
+            try {
+                compile(source, target);
+                System.out.println(source + " -> " + target);
+            } catch (IOException | IllegalArgumentException ex) {
+                System.err.println(source + ": " + ex.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dino;
+
+// The numbers that shape a generated level: how many obstacles, holes and collectibles it has,
+// how long it lasts and how fast it scrolls. 'pattern' picks which level's obstacle shapes are
+// used. LevelCompiler.generate() lays such a level out; the built-in levels are data files.
+// An endless config instead streams content from EndlessGenerator, seeded with 'seed'.
+public class LevelConfig {
+    public final int pattern;
+    public final int numObstacles;
+    public final int levelSeconds;
+    public final int speed;
+    public final int numHoles;
+    public final int requiredCollectibles;
+    public final boolean endless;
+    public final long seed;
+
+    public LevelConfig(int pattern, int numObstacles, int levelSeconds, int speed, int numHoles, int requiredCollectibles) {
+        this(pattern, numObstacles, levelSeconds, speed, numHoles, requiredCollectibles, false, 0);
+    }
+
+    private LevelConfig(int pattern, int numObstacles, int levelSeconds, int speed, int numHoles,
+                        int requiredCollectibles, boolean endless, long seed) {
+        this.pattern = pattern;
+        this.numObstacles = numObstacles;
+        this.levelSeconds = levelSeconds;
+        this.speed = speed;
+        this.numHoles = numHoles;
+        this.requiredCollectibles = requiredCollectibles;
+        this.endless = endless;
+        this.seed = seed;
+    }
+
+    // A level-5 style level stretched to the given obstacle count, keeping level 5's spacing
+    // of obstacles, holes and collectibles. Used to see how costs scale with level size.
+    public static LevelConfig synthetic(int numObstacles) {
+        int levelSeconds = Math.max(20, numObstacles * 60 / 38);
+        return new LevelConfig(5, numObstacles, levelSeconds, 15, numObstacles * 6 / 38, Math.max(1, numObstacles * 30 / 38));
+    }
+
+    // Endless runner: starts at level 1's pattern and speed and gets harder as it goes
+    public static LevelConfig endless(long seed) {
+        return new LevelConfig(1, 0, 0, 7, 0, 0, true, seed);
+    }
+}
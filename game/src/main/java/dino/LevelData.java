@@ -0,0 +1,170 @@
+package dino;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+// A fixed level as data, in the binary .dlvl format LevelCompiler produces. Files are mapped
+// with FileChannel.map rather than read, and setupLevel() copies the entity columns straight
+// out of the mapping into the world's stores, so nothing is parsed or laid out at restart.
+//
+// Layout (little-endian ints):
+//   magic, version, level, speed, levelLength, requiredCollectibles,
+//   obstacle count, collectible count, hole count,
+//   then for obstacles, collectibles and holes in turn: every x, every y, every w, every h.
+// Each kind is stored sorted by x, the order SpatialIndex expects.
+public class LevelData {
+    static final int MAGIC = 0x4C564C44; // "DLVL"
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 9;
+
+    private static final Map<Integer, LevelData> builtins = new ConcurrentHashMap<>();
+    // Replaced versions of shipped levels -> the version that replaced each; weak, so a version is
+    // forgotten once no world plays it any more
+    private static final Map<LevelData, LevelData> replacements = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ByteBuffer buffer;
+    public final int level; // also picks the background image
+    public final int speed;
+    public final int levelLength;
+    public final int requiredCollectibles;
+    public final int numObstacles;
+    public final int numCollectibles;
+    public final int numHoles;
+
+    private LevelData(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer in = this.buffer.asIntBuffer();
+        if (in.remaining() < HEADER_INTS || in.get(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a level file");
+        }
+        if (in.get(1) != VERSION) {
+            throw new IllegalArgumentException("Unsupported level file version " + in.get(1));
+        }
+        level = in.get(2);
+        speed = in.get(3);
+        levelLength = in.get(4);
+        requiredCollectibles = in.get(5);
+        numObstacles = in.get(6);
+        numCollectibles = in.get(7);
+        numHoles = in.get(8);
+        if (numObstacles < 0 || numCollectibles < 0 || numHoles < 0
+                || in.remaining() != HEADER_INTS + 4L * ((long) numObstacles + numCollectibles + numHoles)) {
+            throw new IllegalArgumentException("Level file is truncated or has a bad entity count");
+        }
+        int pos = HEADER_INTS;
+        for (int n : new int[] {numObstacles, numCollectibles, numHoles}) {
+            for (int i = 1; i < n; i++) {
+                if (in.get(pos + i) < in.get(pos + i - 1)) {
+                    throw new IllegalArgumentException("Level file entities are not sorted by x");
+                }
+            }
+            pos += 4 * n;
+        }
+    }
+
+    // Maps a level file; the mapping stays valid after the channel is closed
+    public static LevelData load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new LevelData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Reads a level file into the heap, for files that may be rewritten while the level is in use:
+    // a mapping of a file that is truncated and written again can fault when read
+    public static LevelData read(Path file) throws IOException {
+        return new LevelData(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    // A level in a buffer holding exactly one level file, e.g. a slice of the startup cache
+    static LevelData wrap(ByteBuffer buffer) {
+        return new LevelData(buffer);
+    }
+
+    // One of the levels shipped in levels/, mapped once and shared by every world that plays it.
+    // The startup cache holds them all in one mapping once it has been written. With hot reload
+    // on, level files are read rather than mapped, as they may be rewritten while the game runs.
+    public static LevelData builtin(int level) {
+        return builtins.computeIfAbsent(level, n -> {
+            StartupCache cache = StartupCache.current();
+            LevelData cached = cache == null ? null : cache.level(n);
+            if (cached != null) return cached;
+            try {
+                Path file = Paths.get("levels", "level" + n + ".dlvl");
+                return LevelWatcher.isEnabled() ? read(file) : load(file);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot load level " + n, ex);
+            }
+        });
+    }
+
+    // Makes 'data' the shipped level n from now on (see LevelWatcher)
+    static void replaceBuiltin(int level, LevelData data) {
+        LevelData replaced = builtins.put(level, data);
+        if (replaced != null) replacements.put(replaced, data);
+    }
+
+    // The newest version of 'data' if it is a shipped level that has been replaced since, else 'data'
+    public static LevelData latestVersion(LevelData data) {
+        for (LevelData next; (next = replacements.get(data)) != null; ) data = next;
+        return data;
+    }
+
+    // Encodes a level held in stores; each store must already be sorted by x
+    public static LevelData of(int level, int speed, int levelLength, int requiredCollectibles,
+                               EntityStore obstacles, EntityStore collectibles, EntityStore holes) {
+        int entities = obstacles.size() + collectibles.size() + holes.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (HEADER_INTS + 4 * entities)).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer out = buffer.asIntBuffer();
+        out.put(MAGIC).put(VERSION).put(level).put(speed).put(levelLength).put(requiredCollectibles)
+            .put(obstacles.size()).put(collectibles.size()).put(holes.size());
+        obstacles.writeColumns(out);
+        collectibles.writeColumns(out);
+        holes.writeColumns(out);
+        return new LevelData(buffer);
+    }
+
+    // The encoded level, as write() stores it
+    ByteBuffer bytes() {
+        ByteBuffer out = buffer.duplicate();
+        out.clear();
+        return out;
+    }
+
+    // CRC32 of the encoded level, so a run log can tell whether a level was edited since
+    public int checksum() {
+        CRC32 crc = new CRC32();
+        crc.update(bytes());
+        return (int) crc.getValue();
+    }
+
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = buffer.duplicate();
+            out.clear();
+            while (out.hasRemaining()) channel.write(out);
+        }
+    }
+
+    // Replaces the contents of the stores with this level's entities
+    public void copyInto(EntityStore obstacles, EntityStore collectibles, EntityStore holes) {
+        IntBuffer in = buffer.asIntBuffer(); // a fresh view, so worlds on other threads don't share a position
+        in.position(HEADER_INTS);
+        obstacles.readColumns(in, numObstacles, EntityStore.OBSTACLE);
+        collectibles.readColumns(in, numCollectibles, EntityStore.COLLECTIBLE);
+        holes.readColumns(in, numHoles, EntityStore.HOLE);
+    }
+}
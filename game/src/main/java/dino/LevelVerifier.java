@@ -0,0 +1,408 @@
+package dino;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Checks that a level can be cleared at all, and finds the run that clears it with the least
+// damage. Searches every jump and move decision tick by tick, stepping the game's own physics
+// (GameWorld.step) rather than a model of it, and memoizes: per tick, runs are kept per player
+// position (x and jump height and direction), and a run is dropped when another at the same
+// position can do everything it can (see States.dominates). The positions a tick can hold are
+// few, as the player stays on screen on a 20px grid, and only a handful of runs per position
+// survive, so a level costs about ticks x positions x inputs steps rather than 6^ticks.
+//
+// Collected flags only matter for collectibles the player can still touch, so each run carries
+// the flags of the next WINDOW collectibles from the camera on instead of the whole set.
+// The run reported is checked by playing it again on a fresh world.
+//
+// Each tick's states are split across the ForkJoinPool, each worker stepping a world of its
+// own, and the results are merged in state order, so the answer doesn't depend on the thread
+// count.
+//
+// Usage: java -Djava.awt.headless=true -cp game/target/classes dino.LevelVerifier
+//            [--threads N] [--out DIR] [TARGET...]
+//   TARGET: as for BatchRunner (default: 1 to 5)
+//   --out:  write each built-in level's best run to DIR as a .dlog for Replay
+// Columns: whether 70% collection is reachable; health, collected and length of the run that
+// clears with the least damage (or, if none does, the run that collects the most); states
+// searched; time taken. Exits with status 1 if any level can't be cleared.
+public class LevelVerifier {
+    private static final int[] INPUTS = {
+        0, GameWorld.INPUT_JUMP, GameWorld.INPUT_LEFT, GameWorld.INPUT_RIGHT,
+        GameWorld.INPUT_JUMP | GameWorld.INPUT_LEFT, GameWorld.INPUT_JUMP | GameWorld.INPUT_RIGHT
+    };
+    private static final int VIEW_WIDTH = 800;
+    private static final int WINDOW = 64; // collectibles whose flags a state carries
+    private static final int MIN_CHUNK = 64; // states per worker before splitting a tick is worth it
+
+    // The best run found for a level
+    public static class Result {
+        public final boolean clearable;
+        public final int health; // -1 if no run reaches the finish
+        public final int collected;
+        public final int ticks;
+        final byte[] inputs; // input of each tick of the run
+        public final long states; // states searched over all ticks
+
+        Result(boolean clearable, int health, int collected, int ticks, byte[] inputs, long states) {
+            this.clearable = clearable;
+            this.health = health;
+            this.collected = collected;
+            this.ticks = ticks;
+            this.inputs = inputs;
+            this.states = states;
+        }
+
+        public int inputAt(int tick) { return inputs[tick]; }
+
+        // Plays the run on a fresh world and returns it, over
+        public GameWorld play(LevelData data) {
+            GameWorld world = new GameWorld(data);
+            while (!world.isOver() && world.getTick() < inputs.length) world.step(inputs[world.getTick()]);
+            return world;
+        }
+    }
+
+    // The runs alive at the start of one tick: packed player state (see key()), collected count
+    // (-1 once another run has beaten it), flags of the collectibles in the window, the run and
+    // input of the tick before, and the next run at the same position
+    static class States {
+        long[] keys = new long[256];
+        int[] collected = new int[256];
+        long[] masks = new long[256];
+        int[] parents = new int[256];
+        byte[] inputs = new byte[256];
+        int[] links = new int[256];
+        int size = 0;
+
+        void add(long key, int nCollected, long mask, int parent, int input) {
+            if (size == keys.length) {
+                int n = size * 2;
+                keys = Arrays.copyOf(keys, n);
+                collected = Arrays.copyOf(collected, n);
+                masks = Arrays.copyOf(masks, n);
+                parents = Arrays.copyOf(parents, n);
+                inputs = Arrays.copyOf(inputs, n);
+                links = Arrays.copyOf(links, n);
+            }
+            keys[size] = key;
+            collected[size] = nCollected;
+            masks[size] = mask;
+            parents[size] = parent;
+            inputs[size] = (byte) input;
+            links[size] = -1;
+            size++;
+        }
+
+        // Adds a run unless one already at its position beats it, and drops the ones it beats;
+        // 'head' is the first run at the position, -1 if none. Returns the new first run.
+        int offer(int head, long key, int nCollected, long mask, int parent, int input) {
+            for (int e = head; e >= 0; e = links[e]) {
+                if (collected[e] >= 0 && dominates(keys[e], collected[e], masks[e], key, nCollected, mask)) return head;
+            }
+            for (int e = head; e >= 0; e = links[e]) {
+                if (collected[e] >= 0 && dominates(key, nCollected, mask, keys[e], collected[e], masks[e])) collected[e] = -1;
+            }
+            add(key, nCollected, mask, parent, input);
+            links[size - 1] = head;
+            return size - 1;
+        }
+
+        // Whether run a, at the same position as run b, can end no worse than b whatever comes:
+        // following b's inputs it meets the same obstacles and collectibles, so it needs to have
+        // collected as many as b even after losing the ones b can still pick up and it can't, and
+        // as much health and blink left, or enough health to take the one hit b's blink saves it
+        // from (after which a's blink lasts at least as long as b's)
+        static boolean dominates(long a, int ca, long ma, long b, int cb, long mb) {
+            if (ca - Long.bitCount(ma & ~mb) < cb) return false;
+            int ha = health(a), hb = health(b);
+            return ha >= hb && blinkTicks(a) >= blinkTicks(b) || ha >= hb + GameWorld.HIT_DAMAGE;
+        }
+    }
+
+    // A run that reached the finish, from state 'parent' of 'tick' with 'input'
+    static class Finish {
+        int tick = -1, parent, input, health = -1, collected;
+        boolean cleared;
+
+        // Clearing beats not clearing, then less damage, more collected, and an earlier finish
+        boolean offer(int t, int p, int in, int h, int c, boolean cl) {
+            boolean better;
+            if (tick < 0) {
+                better = true;
+            } else if (cl != cleared) {
+                better = cl;
+            } else if (cl) {
+                better = h > health || h == health && c > collected;
+            } else {
+                better = c > collected || c == collected && h > health;
+            }
+            if (!better) return false;
+            tick = t;
+            parent = p;
+            input = in;
+            health = h;
+            collected = c;
+            cleared = cl;
+            return true;
+        }
+    }
+
+    // Steps one chunk of a tick's states through every input on a world of its own
+    static class Worker {
+        final GameWorld world;
+        final States out = new States();
+        final Finish finish = new Finish();
+
+        Worker(LevelData data) {
+            world = new GameWorld(data);
+            world.setEffects(false);
+        }
+
+        void expand(States in, int from, int to, int tick, int base, int nextBase, int maxX) {
+            out.size = 0;
+            finish.tick = -1;
+            EntityStore collectibles = world.getCollectibles();
+            int windowEnd = Math.min(base + WINDOW, collectibles.size());
+            for (int s = from; s < to; s++) {
+                int nCollected = in.collected[s];
+                if (nCollected < 0) continue; // beaten by a run that came later
+                long key = in.keys[s];
+                int playerX = (int) (key >>> 32);
+                int jumpY = (int) (key >>> 20) & 0xFFF;
+                int blinkTicks = blinkTicks(key);
+                int health = health(key);
+                boolean jumping = (key & 2) != 0;
+                boolean falling = (key & 1) != 0;
+                long mask = in.masks[s];
+                for (int input : INPUTS) {
+                    if ((input & GameWorld.INPUT_JUMP) != 0 && jumping) continue; // same as not jumping
+                    int x = playerX
+                        + (GameWorld.rightPresses(input) - GameWorld.leftPresses(input)) * GameWorld.MOVE_STEP;
+                    if (x < 0 || x > maxX) continue;
+                    world.seek(tick, playerX, jumpY, jumping, falling, blinkTicks, health, nCollected);
+                    for (long m = mask; m != 0; m &= m - 1) collectibles.setCollected(base + Long.numberOfTrailingZeros(m));
+                    world.step(input);
+                    long after = mask;
+                    int gained = world.getCollectedCount() - nCollected;
+                    if (gained > 0) {
+                        for (int i = base; i < windowEnd; i++) {
+                            if (collectibles.isCollected(i)) after |= 1L << (i - base);
+                        }
+                        if (Long.bitCount(after) - Long.bitCount(mask) != gained) {
+                            throw new IllegalStateException("More than " + WINDOW + " collectibles within reach at tick " + tick);
+                        }
+                    }
+                    for (long m = after; m != 0; m &= m - 1) collectibles.clearCollected(base + Long.numberOfTrailingZeros(m));
+                    if (world.isOver()) {
+                        int reason = world.getEndReason();
+                        if (reason == GameWorld.END_CLEARED || reason == GameWorld.END_COLLECTIBLES) {
+                            finish.offer(tick, s, input, world.getHealth(), world.getCollectedCount(), reason == GameWorld.END_CLEARED);
+                        }
+                        continue;
+                    }
+                    int shift = nextBase - base;
+                    out.add(key(world), world.getCollectedCount(), shift >= WINDOW ? 0 : after >>> shift, s, input);
+                }
+            }
+        }
+    }
+
+    // Player state packed as x, jump height, blink ticks, health, jumping and falling bits
+    static long key(GameWorld world) {
+        return (long) world.getPlayerX() << 32 | (long) world.getJumpY() << 20 | world.getBlinkTicks() << 12
+            | world.getHealth() << 4 | (world.isJumping() ? 2 : 0) | (world.isFalling() ? 1 : 0);
+    }
+
+    private static final long POSITION = ~(0xFFFFL << 4); // key without blink ticks and health
+
+    static int blinkTicks(long key) { return (int) (key >>> 12) & 0xFF; }
+    static int health(long key) { return (int) (key >>> 4) & 0xFF; }
+
+    // Splits a tick's states into chunks, one per worker
+    static class ExpandTask extends RecursiveAction {
+        private final Worker[] workers;
+        private final States in;
+        private final int firstChunk, lastChunk, chunkSize, tick, base, nextBase, maxX;
+
+        ExpandTask(Worker[] workers, States in, int firstChunk, int lastChunk, int chunkSize,
+                   int tick, int base, int nextBase, int maxX) {
+            this.workers = workers;
+            this.in = in;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+            this.chunkSize = chunkSize;
+            this.tick = tick;
+            this.base = base;
+            this.nextBase = nextBase;
+            this.maxX = maxX;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                int from = firstChunk * chunkSize;
+                workers[firstChunk].expand(in, from, Math.min(in.size, from + chunkSize), tick, base, nextBase, maxX);
+                return;
+            }
+            int mid = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new ExpandTask(workers, in, firstChunk, mid, chunkSize, tick, base, nextBase, maxX),
+                new ExpandTask(workers, in, mid, lastChunk, chunkSize, tick, base, nextBase, maxX));
+        }
+    }
+
+    public static Result verify(ForkJoinPool pool, LevelData data) {
+        Worker[] workers = new Worker[pool.getParallelism()];
+        for (int i = 0; i < workers.length; i++) workers[i] = new Worker(data);
+        GameWorld start = workers[0].world;
+        int maxX = VIEW_WIDTH - start.getCharacterR(); // the player stays on screen
+        EntityStore collectibles = start.getCollectibles();
+        // History of every tick's parents and inputs, to follow the best run back from its finish
+        List<int[]> parents = new ArrayList<>();
+        List<byte[]> inputs = new ArrayList<>();
+        States states = new States();
+        States next = new States();
+        states.add(key(start), 0, 0L, -1, 0);
+        parents.add(new int[] {-1});
+        inputs.add(new byte[] {0});
+        Finish best = new Finish();
+        long searched = 0;
+        long[] table = new long[1024]; // open addressing: position -> its first run in 'next', -1 where none
+        int[] slots = new int[1024];
+        int base = 0;
+        for (int tick = 0; states.size > 0; tick++) {
+            searched += states.size;
+            int nextBase = base;
+            int reach = (tick + 1) * data.speed - collectibles.maxWidth(); // see Worker.expand
+            while (nextBase < collectibles.size() && collectibles.x[nextBase] <= reach) nextBase++;
+            int chunks = Math.max(1, Math.min(workers.length, states.size / MIN_CHUNK));
+            int chunkSize = (states.size + chunks - 1) / chunks;
+            chunks = (states.size + chunkSize - 1) / chunkSize;
+            if (chunks == 1) {
+                workers[0].expand(states, 0, states.size, tick, base, nextBase, maxX);
+            } else {
+                pool.invoke(new ExpandTask(workers, states, 0, chunks, chunkSize, tick, base, nextBase, maxX));
+            }
+            // Merge the workers' results in state order
+            int candidates = 0;
+            for (int c = 0; c < chunks; c++) candidates += workers[c].out.size;
+            int capacity = Integer.highestOneBit(Math.max(16, candidates * 2 - 1)) << 1;
+            if (table.length < capacity) {
+                table = new long[capacity];
+                slots = new int[capacity];
+            }
+            Arrays.fill(slots, 0, capacity, -1);
+            int tableMask = capacity - 1;
+            next.size = 0;
+            for (int c = 0; c < chunks; c++) {
+                Worker w = workers[c];
+                Finish f = w.finish;
+                if (f.tick >= 0) best.offer(f.tick, f.parent, f.input, f.health, f.collected, f.cleared);
+                States out = w.out;
+                for (int i = 0; i < out.size; i++) {
+                    long position = out.keys[i] & POSITION;
+                    int h = (int) (position ^ (position >>> 29)) * 0x9E3779B9 >>> 7 & tableMask;
+                    while (slots[h] >= 0 && table[h] != position) h = (h + 1) & tableMask;
+                    table[h] = position;
+                    slots[h] = next.offer(slots[h], out.keys[i], out.collected[i], out.masks[i], out.parents[i], out.inputs[i]);
+                }
+            }
+            parents.add(Arrays.copyOf(next.parents, next.size));
+            inputs.add(Arrays.copyOf(next.inputs, next.size));
+            States t = states;
+            states = next;
+            next = t;
+            base = nextBase;
+        }
+        if (best.tick < 0) return new Result(false, -1, 0, 0, new byte[0], searched);
+        // Follow the best run back to the start
+        byte[] run = new byte[best.tick + 1];
+        run[best.tick] = (byte) best.input;
+        for (int tick = best.tick, s = best.parent; tick > 0; tick--) {
+            run[tick - 1] = inputs.get(tick)[s];
+            s = parents.get(tick)[s];
+        }
+        return new Result(best.cleared, best.health, best.collected, best.tick + 1, run, searched);
+    }
+
+    // The run's inputs as tick ranges holding J(ump), L(eft) and R(ight), e.g. "25-31:R 32:JR"
+    private static String describeInputs(Result result) {
+        StringBuilder sb = new StringBuilder();
+        for (int tick = 0; tick < result.ticks; ) {
+            int input = result.inputAt(tick);
+            int end = tick + 1;
+            while (end < result.ticks && result.inputAt(end) == input) end++;
+            if (input != 0) {
+                sb.append(' ').append(tick);
+                if (end - tick > 1) sb.append('-').append(end - 1);
+                sb.append(':');
+                if ((input & GameWorld.INPUT_JUMP) != 0) sb.append('J');
+                if ((input & GameWorld.INPUT_LEFT) != 0) sb.append('L');
+                if ((input & GameWorld.INPUT_RIGHT) != 0) sb.append('R');
+            }
+            tick = end;
+        }
+        return sb.length() == 0 ? " (none)" : sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = null;
+        List<String> targetSpecs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--out": out = Paths.get(args[++i]); break;
+                default: targetSpecs.add(args[i]);
+            }
+        }
+        if (targetSpecs.isEmpty()) {
+            for (int level = 1; level <= 5; level++) targetSpecs.add(Integer.toString(level));
+        }
+        SpriteShapes.resolve(); // what is clearable depends on the sprites found here
+        List<BatchRunner.Target> targets = new ArrayList<>();
+        for (String spec : targetSpecs) targets.add(BatchRunner.Target.parse(spec));
+
+        System.out.printf("%d threads%n", threads);
+        System.out.printf("%-24s %9s %7s %10s %7s %10s %8s%n",
+            "level", "clearable", "health", "collected", "ticks", "states", "seconds");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        boolean allClearable = true;
+        for (BatchRunner.Target target : targets) {
+            long start = System.nanoTime();
+            Result result = verify(pool, target.data);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            allClearable &= result.clearable;
+            System.out.printf("%-24s %9s %7s %5d/%-4d %7d %10d %8.2f%n", target.name, result.clearable ? "yes" : "NO",
+                result.health < 0 ? "-" : Integer.toString(result.health), result.collected, target.data.requiredCollectibles, result.ticks, result.states, seconds);
+            if (result.health < 0) continue;
+            // The search branched from restored states; playing the run from the start confirms it
+            GameWorld world = result.play(target.data);
+            if (world.getHealth() != result.health || world.getCollectedCount() != result.collected
+                    || world.isLevelCleared() != result.clearable || world.getTick() != result.ticks) {
+                System.out.println("  played again, the run ends differently: " + RunLog.Outcome.of(world));
+                allClearable = false;
+            }
+            System.out.println("  inputs:" + describeInputs(result));
+            if (out != null && RunLog.canRecord(world)) {
+                GameWorld replay = new GameWorld(target.data);
+                RunLog log = RunLog.begin(replay);
+                for (int tick = 0; tick < result.ticks; tick++) log.record(tick, result.inputAt(tick));
+                log.finish(world);
+                Files.createDirectories(out);
+                Path file = out.resolve("level" + world.getLevel() + "-verified.dlog");
+                log.write(file);
+                System.out.println("  written to " + file);
+            }
+        }
+        pool.shutdown();
+        if (!allClearable) System.exit(1);
+    }
+}
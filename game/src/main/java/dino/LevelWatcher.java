@@ -0,0 +1,118 @@
+package dino;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Dev mode hot reload, on with -Ddino.hotReload=true: watches levels/ and hands every level that
+// is edited there to the running game, which swaps it in without a restart (see
+// GameWorld.reload). A saved levelN.txt is compiled in memory; a levelN.dlvl written by
+// LevelCompiler is read as it is. Either way the new level also replaces level N for later loads.
+//
+// Editors save in several writes, so changes are gathered until the directory has been quiet for
+// SETTLE_MILLIS. A file that doesn't parse is reported and skipped; the game keeps the last
+// version that did until the file is saved again.
+public class LevelWatcher implements Runnable {
+    private static final long SETTLE_MILLIS = 50;
+    private static final Pattern LEVEL_FILE = Pattern.compile("level(\\d+)\\.(txt|dlvl)");
+
+    public interface Listener {
+        // Called on the watcher thread once 'data' has become level n (see LevelData.latestVersion)
+        void levelChanged(int level, LevelData data);
+    }
+
+    private final Path dir;
+    private final WatchService watcher;
+    private final Listener listener;
+
+    private LevelWatcher(Path dir, Listener listener) throws IOException {
+        this.dir = dir;
+        this.listener = listener;
+        watcher = dir.getFileSystem().newWatchService();
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("dino.hotReload");
+    }
+
+    // Starts watching levels/ on a daemon thread; null if it can't be watched
+    public static LevelWatcher start(Listener listener) {
+        try {
+            LevelWatcher watcher = new LevelWatcher(Paths.get("levels"), listener);
+            Thread t = new Thread(watcher, "level-watcher");
+            t.setDaemon(true);
+            t.start();
+            System.out.println("Hot reload: watching " + watcher.dir.toAbsolutePath());
+            return watcher;
+        } catch (IOException ex) {
+            System.err.println("Hot reload disabled: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException ex) {
+            // closing anyway
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                // Level number -> file that changed, a source winning over its compiled form
+                Map<Integer, Path> changed = new TreeMap<>();
+                WatchKey key = watcher.take();
+                do {
+                    collect(key, changed);
+                    if (!key.reset()) return; // the directory is gone
+                    key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                for (Map.Entry<Integer, Path> e : changed.entrySet()) reload(e.getKey(), e.getValue());
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // stopped
+        }
+    }
+
+    private void collect(WatchKey key, Map<Integer, Path> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            Path name = (Path) event.context();
+            Matcher m = LEVEL_FILE.matcher(name.toString());
+            if (!m.matches()) continue;
+            int level = Integer.parseInt(m.group(1));
+            Path previous = changed.get(level);
+            if (previous == null || !previous.toString().endsWith(".txt")) changed.put(level, dir.resolve(name));
+        }
+    }
+
+    private void reload(int level, Path file) {
+        LevelData replacement;
+        try {
+            replacement = file.toString().endsWith(".txt")
+                ? LevelCompiler.compile(Files.readAllLines(file, StandardCharsets.UTF_8))
+                : LevelData.read(file);
+        } catch (IOException | RuntimeException ex) { // a half-written file can fail in any way
+            System.err.println("Hot reload: " + file + ": " + ex.getMessage());
+            return;
+        }
+        LevelData.replaceBuiltin(level, replacement);
+        listener.levelChanged(level, replacement);
+    }
+}
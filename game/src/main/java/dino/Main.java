@@ -1,10 +1,12 @@
+package dino;
+
 import javax.swing.*;
 import java.awt.*;
 
 public class Main extends JFrame {
+    private final SceneManager scenes = new SceneManager(this);
+    // One game scene, reloaded for each level or run instead of being rebuilt
     private GamePanel gamePanel;
-    private MainMenuPanel mainMenuPanel;
-    private LevelSelectPanel levelSelectPanel;
     private int highestUnlockedLevel = 1;
 
     public Main() {
@@ -14,34 +16,38 @@ public class Main extends JFrame {
         setLocationRelativeTo(null);
         showMainMenu();
         setVisible(true);
+        if (LevelWatcher.isEnabled()) {
+            LevelWatcher.start((level, data) -> SwingUtilities.invokeLater(() -> {
+                if (gamePanel != null) gamePanel.levelEdited();
+            }));
+        }
     }
 
     public void showMainMenu() {
-        if (gamePanel != null) remove(gamePanel);
-        if (levelSelectPanel != null) remove(levelSelectPanel);
-        mainMenuPanel = new MainMenuPanel(this);
-        setContentPane(mainMenuPanel);
-        revalidate();
-        repaint();
+        scenes.show(new MainMenuPanel(this));
     }
 
     public void showLevelSelect() {
-        if (mainMenuPanel != null) remove(mainMenuPanel);
-        if (gamePanel != null) remove(gamePanel);
-        levelSelectPanel = new LevelSelectPanel(this, highestUnlockedLevel);
-        setContentPane(levelSelectPanel);
-        revalidate();
-        repaint();
+        scenes.show(new LevelSelectPanel(this, highestUnlockedLevel));
     }
 
     public void startGame(int level) {
-        if (mainMenuPanel != null) remove(mainMenuPanel);
-        if (levelSelectPanel != null) remove(levelSelectPanel);
-        gamePanel = new GamePanel(this, level, highestUnlockedLevel);
-        setContentPane(gamePanel);
-        revalidate();
-        repaint();
-        gamePanel.requestFocusInWindow(); // Ensure key events work
+        if (gamePanel == null) {
+            gamePanel = new GamePanel(this, new GameWorld(level));
+        } else {
+            gamePanel.load(LevelData.builtin(level));
+        }
+        scenes.show(gamePanel);
+    }
+
+    public void startEndless() {
+        LevelConfig config = LevelConfig.endless(System.nanoTime());
+        if (gamePanel == null) {
+            gamePanel = new GamePanel(this, new GameWorld(config));
+        } else {
+            gamePanel.load(config);
+        }
+        scenes.show(gamePanel);
     }
 
     public void unlockLevel(int level) {
@@ -51,12 +57,15 @@ public class Main extends JFrame {
     }
 
     public static void main(String[] args) {
+        Assets.shared().preloadStartup(); // decodes in the background while the window opens
+        // Collisions depend on the outlines, so they are settled before the EDT builds any world
+        Assets.await(Assets.shared().shapes());
         SwingUtilities.invokeLater(Main::new);
     }
 }
 
 // Main menu panel
-class MainMenuPanel extends JPanel {
+class MainMenuPanel extends JPanel implements Scene {
     public MainMenuPanel(Main mainFrame) {
         setLayout(null);
         JLabel title = new JLabel("DINO GAME", SwingConstants.CENTER);
@@ -69,13 +78,16 @@ class MainMenuPanel extends JPanel {
         JButton exitBtn = new JButton("Exit");
         exitBtn.setBounds(350, 200, 100, 40);
         add(exitBtn);
-        playBtn.addActionListener(_ -> mainFrame.showLevelSelect());
-        exitBtn.addActionListener(_ -> System.exit(0));
+        playBtn.addActionListener(e -> mainFrame.showLevelSelect());
+        exitBtn.addActionListener(e -> System.exit(0));
     }
+
+    @Override
+    public JComponent getComponent() { return this; }
 }
 
 // Level select panel
-class LevelSelectPanel extends JPanel {
+class LevelSelectPanel extends JPanel implements Scene {
     public LevelSelectPanel(Main mainFrame, int highestUnlockedLevel) {
         setLayout(null);
         JLabel select = new JLabel("Select Level", SwingConstants.CENTER);
@@ -87,12 +99,19 @@ class LevelSelectPanel extends JPanel {
             levelBtn.setBounds(180 + (i - 1) * 90, 120, 80, 40);
             levelBtn.setEnabled(i <= highestUnlockedLevel);
             int level = i;
-            levelBtn.addActionListener(_ -> mainFrame.startGame(level));
+            levelBtn.addActionListener(e -> mainFrame.startGame(level));
             add(levelBtn);
         }
+        JButton endlessBtn = new JButton("Endless");
+        endlessBtn.setBounds(340, 175, 120, 35);
+        endlessBtn.addActionListener(e -> mainFrame.startEndless());
+        add(endlessBtn);
         JButton backBtn = new JButton("Main Menu");
         backBtn.setBounds(340, 220, 120, 35);
-        backBtn.addActionListener(_ -> mainFrame.showMainMenu());
+        backBtn.addActionListener(e -> mainFrame.showMainMenu());
         add(backBtn);
     }
+
+    @Override
+    public JComponent getComponent() { return this; }
 }
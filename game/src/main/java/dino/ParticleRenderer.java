@@ -0,0 +1,57 @@
+package dino;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Draws a ParticleSystem. Each kind is a round dot of one size and colour that fades out over
+// its life; the fade is quantized to ALPHA_STEPS, and every step is pre-rendered once, so a
+// particle costs a single image blit with no Color or raster allocated per frame.
+public class ParticleRenderer {
+    static final int ALPHA_STEPS = 16;
+    private static final int[] SIZE = {18, 6, 4, 8};
+    private static final Color[] COLOR = {
+        new Color(0, 0, 180), new Color(255, 215, 0), new Color(255, 120, 0), new Color(120, 100, 80)
+    };
+    // Alpha at the start and the end of a particle's life
+    private static final int[] ALPHA_FROM = {120, 255, 255, 200};
+    private static final int[] ALPHA_TO = {30, 40, 60, 20};
+
+    private final BufferedImage[][] dots = new BufferedImage[ParticleSystem.KINDS][ALPHA_STEPS];
+
+    public ParticleRenderer() {
+        for (int k = 0; k < ParticleSystem.KINDS; k++) {
+            for (int s = 0; s < ALPHA_STEPS; s++) {
+                int alpha = ALPHA_TO[k] + (ALPHA_FROM[k] - ALPHA_TO[k]) * s / (ALPHA_STEPS - 1);
+                Color c = COLOR[k];
+                dots[k][s] = createDot(new Color(c.getRed(), c.getGreen(), c.getBlue(), alpha), SIZE[k]);
+            }
+        }
+    }
+
+    // Positions are interpolated 'alpha' of the way from the previous tick, like everything else
+    public void draw(Graphics g, ParticleSystem particles, int cameraOffset, float alpha, int width) {
+        float back = 1f - alpha;
+        for (int n = 0; n < particles.size(); n++) {
+            int i = particles.slot(n);
+            int life = particles.life[i];
+            if (life <= 0) continue;
+            int k = particles.kind[i];
+            int size = SIZE[k];
+            int sx = Math.round(particles.x[i] - particles.vx[i] * back) - cameraOffset - size / 2;
+            if (sx + size < 0 || sx > width) continue;
+            int sy = Math.round(particles.y[i] - particles.vy[i] * back) - size / 2;
+            int max = particles.maxLife[i];
+            int step = max <= 1 ? ALPHA_STEPS - 1 : (life - 1) * (ALPHA_STEPS - 1) / (max - 1);
+            g.drawImage(dots[k][step], sx, sy, null);
+        }
+    }
+
+    private static BufferedImage createDot(Color color, int size) {
+        BufferedImage dot = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = dot.createGraphics();
+        g.setColor(color);
+        g.fillOval(0, 0, size, size);
+        g.dispose();
+        return dot;
+    }
+}
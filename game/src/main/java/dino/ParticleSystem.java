@@ -0,0 +1,123 @@
+package dino;
+
+// Cosmetic particles (the player's trail, pickup bursts, hit sparks and hole-fall dust) kept in
+// preallocated primitive columns used as a ring buffer. Particles are appended at the tail and
+// expire from the head; when the ring is full the oldest particle is overwritten, so spawning
+// never allocates and the live count is bounded. Everything advances once per tick in a single
+// pass over the columns, in world coordinates, and nothing here feeds back into the game.
+public class ParticleSystem {
+    // Particle kinds; see ParticleRenderer for how each one looks
+    public static final int TRAIL = 0;
+    public static final int SPARKLE = 1; // collectible picked up
+    public static final int SPARK = 2; // obstacle hit
+    public static final int DUST = 3; // fell into a hole
+    public static final int KINDS = 4;
+
+    public static final int TRAIL_LIFE = GameWorld.TRAIL_LENGTH;
+    public static final int MAX_LIFE = 32;
+    // Downward pull per tick, per kind; the trail just hangs where it was left
+    private static final float[] GRAVITY = {0f, 0.25f, 0.6f, 0.35f};
+
+    private final int mask;
+    final float[] x, y, vx, vy;
+    final int[] life, maxLife;
+    final byte[] kind;
+    private int head = 0; // oldest particle
+    private int count = 0; // particles from head on, some of which may already have expired
+    private int seed = 1; // xorshift state for spread; part of the world so runs stay reproducible
+
+    public ParticleSystem(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        x = new float[size];
+        y = new float[size];
+        vx = new float[size];
+        vy = new float[size];
+        life = new int[size];
+        maxLife = new int[size];
+        kind = new byte[size];
+    }
+
+    public int capacity() { return x.length; }
+
+    // Ring slots in use from head(), live or not; slot(i) maps the i-th of them to an array index
+    public int size() { return count; }
+
+    public int slot(int i) { return (head + i) & mask; }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    public void reseed(int seed) {
+        this.seed = seed == 0 ? 1 : seed;
+    }
+
+    public void spawn(int k, float px, float py, float pvx, float pvy, int ticks) {
+        if (count == x.length) {
+            head = (head + 1) & mask; // full: drop the oldest
+            count--;
+        }
+        int i = (head + count++) & mask;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        life[i] = ticks;
+        maxLife[i] = ticks;
+        kind[i] = (byte) k;
+    }
+
+    // 'n' particles flung out from (px, py) at up to 'speed' px/tick, biased by 'lift' upwards
+    public void burst(int k, int n, float px, float py, float speed, float lift, int minLife, int maxLifeTicks) {
+        for (int j = 0; j < n; j++) {
+            float pvx = (nextFloat() * 2f - 1f) * speed;
+            float pvy = (nextFloat() * 2f - 1f) * speed - lift;
+            int ticks = minLife + (int) (nextFloat() * (maxLifeTicks - minLife + 1));
+            spawn(k, px, py, pvx, pvy, Math.min(MAX_LIFE, ticks));
+        }
+    }
+
+    // One tick: move and age everything, then drop the expired run at the head
+    public void update() {
+        for (int n = 0; n < count; n++) {
+            int i = (head + n) & mask;
+            if (life[i] <= 0) continue;
+            life[i]--;
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vy[i] += GRAVITY[kind[i]];
+        }
+        while (count > 0 && life[head] <= 0) {
+            head = (head + 1) & mask;
+            count--;
+        }
+    }
+
+    // Copies the live particles that may be on screen between world x 'from' and 'to' into
+    // 'dst', packed from slot 0; used to hand particles to the renderer
+    public void copyVisible(ParticleSystem dst, int from, int to) {
+        dst.clear();
+        for (int n = 0; n < count; n++) {
+            int i = (head + n) & mask;
+            if (life[i] <= 0 || x[i] < from || x[i] > to) continue;
+            if (dst.count == dst.x.length) break;
+            int j = dst.count++;
+            dst.x[j] = x[i];
+            dst.y[j] = y[i];
+            dst.vx[j] = vx[i];
+            dst.vy[j] = vy[i];
+            dst.life[j] = life[i];
+            dst.maxLife[j] = maxLife[i];
+            dst.kind[j] = kind[i];
+        }
+    }
+
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) * (1f / (1 << 24));
+    }
+}
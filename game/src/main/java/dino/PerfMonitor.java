@@ -0,0 +1,100 @@
+package dino;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import jdk.jfr.EventType;
+
+// Tick and frame timing for one GamePanel: histograms of update time, paint time and
+// frame-to-frame jitter, summarised once a second in a debug overlay (toggled with F3, or on
+// from the start with -Ddino.perf=true), plus JFR events for offline analysis of recordings,
+// e.g. java -XX:StartFlightRecording=filename=dino.jfr ...
+// When the overlay is off and no recording has the events enabled, callers skip timing
+// entirely: the only cost left is the isActive() check.
+public class PerfMonitor {
+    static final EventType TICK_EVENT = EventType.getEventType(TickEvent.class);
+    static final EventType FRAME_EVENT = EventType.getEventType(FrameEvent.class);
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final Color OVERLAY_COLOR = new Color(0, 0, 0, 150);
+
+    // The tick histogram belongs to the simulation thread and the frame ones to the render
+    // thread; each side closes its own one-second windows and publishes the summary lines
+    private final Histogram tickNanos = new Histogram();
+    private final Histogram paintNanos = new Histogram();
+    private final Histogram jitterNanos = new Histogram();
+    private final long framePeriodNanos;
+    private volatile boolean overlay = Boolean.getBoolean("dino.perf");
+    private long lastTickStart = 0, tickWindowStart = 0;
+    private long lastFrameStart = 0, frameWindowStart = 0;
+    private volatile String tickLine = "tick   collecting...";
+    private volatile String fpsLine = "", paintLine = "", jitterLine = "";
+    private float renderScale = 1f; // of the last frame, from ResolutionScaler
+
+    public PerfMonitor(int targetFps) {
+        this.framePeriodNanos = 1_000_000_000L / Math.max(1, targetFps);
+    }
+
+    public void toggleOverlay() {
+        overlay = !overlay;
+    }
+
+    // True if ticks and frames should be timed at all
+    public boolean isActive() {
+        return overlay || TICK_EVENT.isEnabled() || FRAME_EVENT.isEnabled();
+    }
+
+    // Called with the start and end of each tick's update
+    public void recordTick(long start, long end) {
+        if (lastTickStart == 0 || start - lastTickStart > WINDOW_NANOS) {
+            // First tick timed, or timing was off for a while: start a fresh window
+            tickNanos.reset();
+            tickWindowStart = start;
+        }
+        tickNanos.record(end - start);
+        lastTickStart = start;
+        if (start - tickWindowStart >= WINDOW_NANOS) {
+            tickLine = summary("tick", tickNanos) + String.format("  (%d)", tickNanos.count());
+            tickNanos.reset();
+            tickWindowStart = start;
+        }
+    }
+
+    // Called with the start and end of each frame's rendering, and the scale the world was drawn at
+    public void recordFrame(long start, long end, float scale) {
+        renderScale = scale;
+        if (lastFrameStart == 0 || start - lastFrameStart > WINDOW_NANOS) {
+            paintNanos.reset();
+            jitterNanos.reset();
+            frameWindowStart = start;
+        } else {
+            jitterNanos.record(Math.abs(start - lastFrameStart - framePeriodNanos));
+        }
+        paintNanos.record(end - start);
+        lastFrameStart = start;
+        if (start - frameWindowStart >= WINDOW_NANOS) {
+            double seconds = (start - frameWindowStart) / 1e9;
+            fpsLine = String.format("%.0f fps  world at %.0f%%", paintNanos.count() / seconds, renderScale * 100);
+            paintLine = summary("paint", paintNanos);
+            jitterLine = summary("jitter", jitterNanos);
+            paintNanos.reset();
+            jitterNanos.reset();
+            frameWindowStart = start;
+        }
+    }
+
+    private static String summary(String name, Histogram h) {
+        return String.format("%-6s p50 %6.2f  p99 %6.2f  max %6.2f ms", name,
+            h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6, h.max() / 1e6);
+    }
+
+    // Drawn under the HUD, with the stats of the last full second
+    public void drawOverlay(Graphics g) {
+        if (!overlay) return;
+        g.setColor(OVERLAY_COLOR);
+        g.fillRect(5, 90, 330, 78);
+        g.setColor(Color.WHITE);
+        g.drawString(fpsLine, 10, 105);
+        g.drawString(tickLine, 10, 123);
+        g.drawString(paintLine, 10, 141);
+        g.drawString(jitterLine, 10, 159);
+    }
+}
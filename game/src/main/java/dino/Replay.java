@@ -0,0 +1,105 @@
+package dino;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Plays recorded runs again headlessly, as fast as the CPU allows, and checks that each one
+// ends the way it did when it was recorded.
+// Usage: java -Djava.awt.headless=true -cp game/target/classes dino.Replay <run.dlog | dir>...
+// Exits with status 1 if any replay disagrees with its recording or can't be read. Logs written
+// by a build with another run log format, with other sprites, or on a level that has been
+// edited since are skipped: they were recorded under other rules.
+public class Replay {
+
+    public static RunLog.Outcome run(RunLog log) {
+        return RunLog.Outcome.of(play(log));
+    }
+
+    // Steps a fresh world through the log's inputs until the run is over, and returns it as the
+    // run left it. A run that outlasts its recording by a tick has already diverged, so that's
+    // as far as it's followed.
+    static GameWorld play(RunLog log) {
+        GameWorld world = log.newWorld();
+        int limit = log.getOutcome() != null ? log.getOutcome().ticks + 1 : Integer.MAX_VALUE;
+        int next = 0;
+        while (!world.isOver() && world.getTick() < limit) {
+            int input = 0;
+            if (next < log.size() && log.tickAt(next) == world.getTick()) {
+                input = log.inputAt(next++);
+            }
+            world.step(input);
+        }
+        return world;
+    }
+
+    // Why this build can't tell whether the log's run still ends the same way, or null if it can
+    static String skipReason(RunLog log) {
+        if (log.shapes != RunLog.currentShapes()) return "recorded with other sprites, which collide differently";
+        if (!log.endless && log.levelChecksum != LevelData.builtin(log.level).checksum()) {
+            return "level " + log.level + " has been edited since it was recorded";
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> s = Files.list(path)) {
+                    s.filter(p -> p.toString().endsWith(".dlog")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: Replay <run.dlog | dir>...");
+            System.exit(2);
+        }
+        SpriteShapes.resolve(); // runs recorded with other sprites are skipped below
+        int failed = 0, skipped = 0;
+        for (Path file : files) {
+            RunLog log;
+            try {
+                int version = RunLog.versionOf(file);
+                if (version != RunLog.VERSION) {
+                    skipped++;
+                    System.out.println("SKIP " + file + ": run log version " + version + ", this build replays version "
+                        + RunLog.VERSION);
+                    continue;
+                }
+                log = RunLog.read(file);
+                String reason = skipReason(log);
+                if (reason != null) {
+                    skipped++;
+                    System.out.println("SKIP " + file + ": " + reason);
+                    continue;
+                }
+            } catch (IOException | UncheckedIOException ex) {
+                failed++;
+                System.out.println("FAIL " + file + ": " + (ex instanceof EOFException ? "truncated" : ex.getMessage()));
+                continue;
+            }
+            long start = System.nanoTime();
+            RunLog.Outcome replayed = run(log);
+            long nanos = Math.max(1, System.nanoTime() - start);
+            boolean ok = replayed.equals(log.getOutcome());
+            if (!ok) failed++;
+            double speedup = (double) replayed.ticks * GameWorld.TICK_MILLIS * 1_000_000 / nanos;
+            System.out.printf("%s %s: %s (%.1f ms, %.0fx real time)%n", ok ? "OK  " : "FAIL", file,
+                ok ? replayed : "replayed " + replayed + ", recorded " + log.getOutcome(), nanos / 1e6, speedup);
+        }
+        int played = files.size() - skipped;
+        System.out.println((played - failed) + "/" + played + " replays match"
+            + (skipped > 0 ? ", " + skipped + " skipped" : ""));
+        if (failed > 0) System.exit(1);
+    }
+}
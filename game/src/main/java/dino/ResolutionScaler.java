@@ -0,0 +1,95 @@
+package dino;
+
+import java.awt.*;
+import java.awt.image.VolatileImage;
+
+// Dynamic resolution for the world part of a frame. While painting fits the frame budget the
+// world is drawn straight onto the panel; when frames overrun it, the world is drawn at a lower
+// scale into a back buffer that is then stretched over the panel with bilinear filtering, and
+// when there is headroom again the scale steps back up. The HUD and overlays are drawn after the
+// stretch, at native resolution, so text stays sharp at any scale.
+// Paint cost is taken to grow with the pixels drawn: a step up is only taken if the estimate at
+// the larger scale leaves HEADROOM of the budget, so it doesn't bounce straight back down.
+// -Ddino.minRenderScale sets the lowest scale used (default 0.5; 1 turns scaling off).
+public class ResolutionScaler {
+    private static final float[] SCALES = {1f, 0.85f, 0.7f, 0.6f, 0.5f, 0.4f, 0.33f, 0.25f};
+    private static final int SETTLE_FRAMES = 30; // frames at a scale before it may change again
+    private static final double HEADROOM = 0.6;
+
+    private final long budgetNanos;
+    private final int lowestStep;
+    private int step = 0; // index into SCALES
+    private double averageNanos = 0; // moving average of paint time at the current scale
+    private int framesAtStep = 0;
+    private Image buffer;
+    private int bufferWidth, bufferHeight;
+
+    public ResolutionScaler(int targetFps) {
+        this.budgetNanos = 1_000_000_000L / Math.max(1, targetFps);
+        float min = Float.parseFloat(System.getProperty("dino.minRenderScale", "0.5"));
+        int lowest = 0;
+        while (lowest + 1 < SCALES.length && SCALES[lowest + 1] >= min) lowest++;
+        this.lowestStep = lowest;
+    }
+
+    public float getScale() { return SCALES[step]; }
+
+    // Called with how long each frame took to paint, native parts included
+    public void recordFrame(long nanos) {
+        averageNanos = framesAtStep == 0 ? nanos : averageNanos + (nanos - averageNanos) / 8;
+        if (++framesAtStep < SETTLE_FRAMES) return;
+        if (averageNanos > budgetNanos && step < lowestStep) {
+            setStep(step + 1);
+        } else if (step > 0) {
+            double up = SCALES[step - 1] / SCALES[step];
+            if (averageNanos * up * up < budgetNanos * HEADROOM) setStep(step - 1);
+        }
+    }
+
+    private void setStep(int next) {
+        step = next;
+        framesAtStep = 0;
+        if (step == 0 && buffer != null) {
+            buffer.flush();
+            buffer = null;
+        }
+    }
+
+    // Graphics to draw the world into, set up so it can be drawn in panel coordinates, or null
+    // at full scale, when the world goes straight onto 'g'. Dispose it before endFrame.
+    public Graphics2D beginFrame(Graphics g, int width, int height) {
+        if (step == 0) return null;
+        int w = Math.max(1, Math.round(width * SCALES[step]));
+        int h = Math.max(1, Math.round(height * SCALES[step]));
+        GraphicsConfiguration gc = ((Graphics2D) g).getDeviceConfiguration();
+        if (buffer != null && (w != bufferWidth || h != bufferHeight)) {
+            buffer.flush();
+            buffer = null;
+        }
+        if (buffer instanceof VolatileImage
+            && ((VolatileImage) buffer).validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            buffer.flush();
+            buffer = null;
+        }
+        if (buffer == null) {
+            buffer = Assets.createAccelerated(gc, w, h, Transparency.OPAQUE);
+            bufferWidth = w;
+            bufferHeight = h;
+        }
+        Graphics2D bg = (Graphics2D) buffer.getGraphics();
+        bg.scale((double) w / width, (double) h / height);
+        return bg;
+    }
+
+    // Stretches the world over the panel. False if the buffer lost its contents while it was
+    // drawn, in which case the world has to be drawn onto 'g' directly this frame.
+    public boolean endFrame(Graphics g, int width, int height) {
+        if (buffer instanceof VolatileImage && ((VolatileImage) buffer).contentsLost()) return false;
+        Graphics2D g2 = (Graphics2D) g;
+        Object interpolation = g2.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(buffer, 0, 0, width, height, 0, 0, bufferWidth, bufferHeight, null);
+        if (interpolation != null) g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        return true;
+    }
+}
@@ -0,0 +1,230 @@
+package dino;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Everything needed to play a run again: which level (or endless seed), the player state the
+// run started from, and the input bits of every tick that had any, as (tick, input) pairs.
+// The simulation is a pure function of these, so Replay gets the same outcome every time.
+// The level is named by its number, with a checksum of its data, so a run on a level that has
+// been edited since isn't played on the new version.
+//
+// File layout (DataOutputStream, big-endian):
+//   magic "DLOG", version, endless flag, level, seed, sprite outline stamp, level checksum,
+//   start state: playerX, jumpY, jumping/falling bits, blinkTicks,
+//   event count, then per event: tick delta as a varint and the input byte (jump bit and
+//   arrow press counts, see GameWorld.INPUT_JUMP),
+//   outcome: ticks, health, collected, cleared.
+public class RunLog {
+    static final int MAGIC = 0x444C4F47; // "DLOG"
+    // Bumped whenever the rules change, so older runs aren't replayed under the new ones:
+    // 2 swept collision, 3 pixel collision masks, 4 sprite outlines, 5 arrow presses counted per
+    // tick, 6 level checksum
+    static final int VERSION = 6;
+
+    final boolean endless;
+    final int level;
+    final long seed;
+    final int shapes; // SpriteShapes stamp of the outlines collided with; 0 for the plain shapes
+    final int levelChecksum; // LevelData.checksum() of the level played; 0 for endless runs
+    // Player state carried in from the previous run by GameWorld.restart()
+    final int startPlayerX;
+    final int startJumpY;
+    final boolean startJumping;
+    final boolean startFalling;
+    final int startBlinkTicks;
+
+    private int[] ticks = new int[64];
+    private byte[] inputs = new byte[64];
+    private int count = 0;
+    private Outcome outcome; // null until the run is over
+
+    private RunLog(boolean endless, int level, long seed, int shapes, int levelChecksum, int playerX,
+                   int jumpY, boolean jumping, boolean falling, int blinkTicks) {
+        this.endless = endless;
+        this.level = level;
+        this.seed = seed;
+        this.shapes = shapes;
+        this.levelChecksum = levelChecksum;
+        this.startPlayerX = playerX;
+        this.startJumpY = jumpY;
+        this.startJumping = jumping;
+        this.startFalling = falling;
+        this.startBlinkTicks = blinkTicks;
+    }
+
+    // Starts a log for a world that is about to run its first tick. Only built-in levels and
+    // endless runs can be recorded, since the log names the level rather than embedding it.
+    public static RunLog begin(GameWorld world) {
+        if (!canRecord(world)) {
+            throw new IllegalArgumentException("Only built-in levels and endless runs can be recorded");
+        }
+        int checksum = world.isEndless() ? 0 : world.getLevelData().checksum();
+        return new RunLog(world.isEndless(), world.getLevel(), world.getSeed(), currentShapes(), checksum,
+            world.getPlayerX(), world.getJumpY(), world.isJumping(), world.isFalling(), world.getBlinkTicks());
+    }
+
+    // The stamp of the outlines this build collides with
+    static int currentShapes() {
+        SpriteShapes shapes = SpriteShapes.shared();
+        return shapes == null ? 0 : shapes.getStamp();
+    }
+
+    public static boolean canRecord(GameWorld world) {
+        return world.isEndless() || world.getLevelData() == LevelData.builtin(world.getLevel());
+    }
+
+    // Notes the input applied by the step that runs from 'tick'; empty inputs aren't stored
+    public void record(int tick, int input) {
+        if (input == 0) return;
+        if (count == ticks.length) {
+            ticks = Arrays.copyOf(ticks, count * 2);
+            inputs = Arrays.copyOf(inputs, count * 2);
+        }
+        ticks[count] = tick;
+        inputs[count] = (byte) input;
+        count++;
+    }
+
+    public void finish(GameWorld world) {
+        outcome = Outcome.of(world);
+    }
+
+    public int size() { return count; }
+    public Outcome getOutcome() { return outcome; }
+
+    // A new world set up the way the recorded run started
+    public GameWorld newWorld() {
+        GameWorld world = endless ? new GameWorld(LevelConfig.endless(seed)) : new GameWorld(level);
+        world.restorePlayer(startPlayerX, startJumpY, startJumping, startFalling, startBlinkTicks);
+        return world;
+    }
+
+    int tickAt(int i) { return ticks[i]; }
+    int inputAt(int i) { return inputs[i]; }
+
+    public void write(Path file) throws IOException {
+        if (outcome == null) throw new IllegalStateException("Run is not finished");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeBoolean(endless);
+            out.writeInt(level);
+            out.writeLong(seed);
+            out.writeInt(shapes);
+            out.writeInt(levelChecksum);
+            out.writeInt(startPlayerX);
+            out.writeInt(startJumpY);
+            out.writeByte((startJumping ? 1 : 0) | (startFalling ? 2 : 0));
+            out.writeByte(startBlinkTicks);
+            out.writeInt(count);
+            int last = 0;
+            for (int i = 0; i < count; i++) {
+                writeVarint(out, ticks[i] - last);
+                out.writeByte(inputs[i]);
+                last = ticks[i];
+            }
+            out.writeInt(outcome.ticks);
+            out.writeInt(outcome.health);
+            out.writeInt(outcome.collected);
+            out.writeBoolean(outcome.cleared);
+        }
+    }
+
+    // The format version 'file' was written with, without reading the rest of it
+    public static int versionOf(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a run log");
+            return in.readByte();
+        }
+    }
+
+    public static RunLog read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a run log");
+            int version = in.readByte();
+            if (version != VERSION) throw new IOException(file + ": unsupported run log version " + version);
+            boolean endless = in.readBoolean();
+            int level = in.readInt();
+            long seed = in.readLong();
+            int shapes = in.readInt();
+            int levelChecksum = in.readInt();
+            int playerX = in.readInt();
+            int jumpY = in.readInt();
+            int jumpBits = in.readByte();
+            int blinkTicks = in.readByte();
+            RunLog log = new RunLog(endless, level, seed, shapes, levelChecksum, playerX, jumpY,
+                (jumpBits & 1) != 0, (jumpBits & 2) != 0, blinkTicks);
+            int n = in.readInt();
+            int tick = 0;
+            for (int i = 0; i < n; i++) {
+                tick += readVarint(in);
+                log.record(tick, in.readByte());
+            }
+            log.outcome = new Outcome(in.readInt(), in.readInt(), in.readInt(), in.readBoolean());
+            return log;
+        }
+    }
+
+    // 7 bits per byte, low bits first; most gaps between inputs fit in one or two bytes
+    private static void writeVarint(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+    }
+
+    // How a run ended
+    public static class Outcome {
+        public final int ticks;
+        public final int health;
+        public final int collected;
+        public final boolean cleared;
+
+        public Outcome(int ticks, int health, int collected, boolean cleared) {
+            this.ticks = ticks;
+            this.health = health;
+            this.collected = collected;
+            this.cleared = cleared;
+        }
+
+        public static Outcome of(GameWorld world) {
+            return new Outcome(world.getTick(), world.getHealth(), world.getCollectedCount(), world.isLevelCleared());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Outcome)) return false;
+            Outcome other = (Outcome) o;
+            return ticks == other.ticks && health == other.health
+                && collected == other.collected && cleared == other.cleared;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((ticks * 31 + health) * 31 + collected) * 31 + (cleared ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return (cleared ? "cleared" : "failed") + " after " + ticks + " ticks, health " + health
+                + ", collected " + collected;
+        }
+    }
+}
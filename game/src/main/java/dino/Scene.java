@@ -0,0 +1,19 @@
+package dino;
+
+import javax.swing.*;
+
+// One screen of the game, shown by the SceneManager. A scene is started when it's shown, paused
+// and resumed while the window is minimized, and disposed when the manager moves on. After
+// dispose() it must leave no timers or threads running; it may be started again later, so one
+// instance can be kept and reused.
+public interface Scene {
+    JComponent getComponent();
+
+    default void start() {}
+
+    default void pause() {}
+
+    default void resume() {}
+
+    default void dispose() {}
+}
@@ -0,0 +1,54 @@
+package dino;
+
+import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+// Owns the frame's content pane and the lifecycle of whichever scene is in it: the current
+// scene is disposed before the next one starts, so nothing from a scene keeps running once
+// it has been left. Call on the EDT.
+public class SceneManager {
+    private final RootPaneContainer host;
+    private Scene current;
+
+    public SceneManager(JFrame frame) {
+        this((RootPaneContainer) frame);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowIconified(WindowEvent e) {
+                if (current != null) current.pause();
+            }
+
+            @Override
+            public void windowDeiconified(WindowEvent e) {
+                if (current != null) current.resume();
+            }
+
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (current != null) current.dispose();
+            }
+        });
+    }
+
+    // Scenes in a host with no window to follow, such as one that is never shown in tests
+    SceneManager(RootPaneContainer host) {
+        this.host = host;
+    }
+
+    public Scene getCurrent() { return current; }
+
+    // Also used to show the current scene again after it has been reloaded
+    public void show(Scene next) {
+        if (current != null) current.dispose();
+        current = next;
+        JComponent component = next.getComponent();
+        if (host.getContentPane() != component) {
+            host.setContentPane(component);
+            host.getRootPane().revalidate();
+        }
+        host.getRootPane().repaint();
+        next.start();
+        component.requestFocusInWindow(); // Ensure key events work
+    }
+}
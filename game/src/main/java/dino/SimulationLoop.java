@@ -0,0 +1,76 @@
+package dino;
+
+import javax.swing.*;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs the simulation on its own thread at the fixed tick rate, so neither painting nor other
+// UI events on the EDT can hold up physics. Each tick takes the input queued since the last
+// one, and after each batch of ticks a snapshot of the world is published for the renderer.
+// When the level ends, effects run on briefly, then the loop stops and hands over to
+// GamePanel.onLevelEnd on the EDT.
+public class SimulationLoop implements Runnable {
+    // Ticks the last particle bursts get to play out before the end screen
+    private static final int END_EFFECT_TICKS = 20;
+
+    private final GamePanel panel;
+    private final FixedTimestep clock;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public SimulationLoop(GamePanel panel, FixedTimestep clock) {
+        this.panel = panel;
+        this.clock = clock;
+    }
+
+    public boolean isRunning() { return running; }
+
+    public synchronized void start() {
+        if (running) return;
+        stop(); // the world has one writer at a time
+        clock.reset(System.nanoTime());
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Returns once the thread has exited, so the caller may touch the world afterwards. Unlike
+    // ActiveRenderLoop this can wait under the AWT tree lock: ticks never take any AWT lock.
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) return;
+        LockSupport.unpark(thread); // don't sleep out the rest of the tick
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        int endTicks = -1; // counts down the effects ticks once the level is over
+        while (running) {
+            int steps = clock.advance(System.nanoTime());
+            for (int i = 0; i < steps; i++) {
+                if (endTicks < 0) {
+                    if (panel.runTick()) endTicks = END_EFFECT_TICKS;
+                } else if (endTicks > 0) {
+                    panel.runEffectsTick();
+                    endTicks--;
+                }
+                if (endTicks == 0) {
+                    panel.publishSnapshot(clock.lastStepAt());
+                    running = false;
+                    SwingUtilities.invokeLater(panel::onLevelEnd);
+                    return;
+                }
+            }
+            if (steps > 0) panel.publishSnapshot(clock.lastStepAt());
+            long wait = clock.nextStepAt() - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(this, wait);
+        }
+    }
+}
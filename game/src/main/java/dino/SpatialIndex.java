@@ -0,0 +1,56 @@
+package dino;
+
+// One-dimensional index over an EntityStore sorted by left edge (world x).
+// A cursor follows the query window as the camera scrolls, so a range query
+// only touches the few entries near the window, whatever the level length.
+// Collision and rendering share the ordering, each through its own Cursor.
+public class SpatialIndex {
+    private final EntityStore store;
+    private final Cursor cursor = new Cursor();
+
+    // Result of the last query(from, to): candidates are the entries in [start, end)
+    int start = 0;
+    int end = 0;
+
+    public SpatialIndex(EntityStore store) {
+        this.store = store;
+    }
+
+    // Forget the cursor position, after the store has been laid out again
+    public void reset() {
+        cursor.pos = 0;
+        start = 0;
+        end = 0;
+    }
+
+    // Finds every entry whose span [x, x + w) may overlap [from, to).
+    // Moving the window forward or back only walks the cursor by the distance scrolled.
+    public void query(int from, int to) {
+        query(cursor, from, to);
+        start = cursor.start;
+        end = cursor.end;
+    }
+
+    // Also finds its way back after entries were dropped from the front of the store, or spliced
+    // in or out by a level reload
+    public void query(Cursor c, int from, int to) {
+        int[] xs = store.x;
+        int count = store.size();
+        int minX = from - store.maxWidth(); // entries starting at or before this end before 'from'
+        int pos = Math.min(c.pos, count);
+        while (pos < count && xs[pos] <= minX) pos++;
+        while (pos > 0 && xs[pos - 1] > minX) pos--;
+        c.pos = pos;
+        c.start = pos;
+        int i = pos;
+        while (i < count && xs[i] < to) i++;
+        c.end = i;
+    }
+
+    // Independent query position, so one reader's window doesn't drag another's cursor around
+    public static class Cursor {
+        private int pos = 0;
+        int start = 0;
+        int end = 0;
+    }
+}
@@ -0,0 +1,130 @@
+package dino;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+// The small sprites packed into one compatible image, each pre-scaled to the size it's drawn
+// at, so drawing a sprite is a 1:1 copy out of a single accelerated surface. Obstacles get a
+// cell for each of the three standard sizes; other sizes are scaled from the largest.
+public class SpriteAtlas {
+    public static final int DINO = 0;
+    public static final int DINO_HIT = 1; // white silhouette shown while blinking
+    public static final int OBSTACLE_SMALL = 2;
+    public static final int OBSTACLE_MEDIUM = 3;
+    public static final int OBSTACLE_LARGE = 4;
+    public static final int COLLECTIBLE = 5;
+    static final int SPRITES = 6;
+    private static final int PADDING = 1; // keeps scaled draws from bleeding in a neighbour
+
+    // Cell sizes, laid out left to right on one shelf
+    static final int[] CELL_W = {40, 40, 40, 60, 80, 30};
+    static final int[] CELL_H = {40, 40, 40, 50, 60, 30};
+    static final int WIDTH, HEIGHT;
+
+    static {
+        int width = 0, height = 0;
+        for (int i = 0; i < SPRITES; i++) {
+            width += CELL_W[i] + PADDING;
+            height = Math.max(height, CELL_H[i]);
+        }
+        WIDTH = width;
+        HEIGHT = height;
+    }
+
+    private final BufferedImage image;
+    private final int[] cellX = new int[SPRITES];
+
+    private SpriteAtlas(BufferedImage image) {
+        this.image = image;
+        int x = 0;
+        for (int i = 0; i < SPRITES; i++) {
+            cellX[i] = x;
+            x += CELL_W[i] + PADDING;
+        }
+    }
+
+    static SpriteAtlas build(BufferedImage dino, BufferedImage obstacle, BufferedImage collectible) {
+        SpriteAtlas atlas = new SpriteAtlas(Assets.createCompatible(WIDTH, HEIGHT, Transparency.TRANSLUCENT));
+        Graphics2D g = atlas.image.createGraphics();
+        atlas.put(g, DINO, dino);
+        int[] fit = fit(DINO_HIT, dino.getWidth(), dino.getHeight());
+        atlas.put(g, DINO_HIT, silhouette(downscale(dino, fit[2], fit[3]), Color.WHITE));
+        for (int size = 0; size < 3; size++) atlas.put(g, OBSTACLE_SMALL + size, obstacle);
+        atlas.put(g, COLLECTIBLE, collectible);
+        g.dispose();
+        return atlas;
+    }
+
+    // An atlas around an image packed by build() earlier, e.g. one kept in the startup cache
+    static SpriteAtlas of(BufferedImage packed) {
+        if (packed.getWidth() != WIDTH || packed.getHeight() != HEIGHT) {
+            throw new IllegalArgumentException("Atlas image is " + packed.getWidth() + "x" + packed.getHeight());
+        }
+        return new SpriteAtlas(packed);
+    }
+
+    BufferedImage getImage() { return image; }
+
+    // Obstacle sprite for an obstacle of the given size
+    public static int obstacleSprite(int w, int h) {
+        for (int size = 0; size < 2; size++) {
+            if (w == 40 + size * 20 && h == 40 + size * 10) return OBSTACLE_SMALL + size;
+        }
+        return OBSTACLE_LARGE;
+    }
+
+    // Draws a sprite into the rectangle; no scaling happens when it matches the cell size
+    public void draw(Graphics g, int sprite, int x, int y, int w, int h) {
+        int sx = cellX[sprite];
+        g.drawImage(image, x, y, x + w, y + h, sx, 0, sx + CELL_W[sprite], CELL_H[sprite], null);
+    }
+
+    // Where put() places a srcW x srcH image in a sprite's cell: x, y, width and height
+    static int[] fit(int sprite, int srcW, int srcH) {
+        double scale = Math.min((double) CELL_W[sprite] / srcW, (double) CELL_H[sprite] / srcH);
+        int w = Math.max(1, (int) Math.round(srcW * scale));
+        int h = Math.max(1, (int) Math.round(srcH * scale));
+        return new int[] {(CELL_W[sprite] - w) / 2, CELL_H[sprite] - h, w, h};
+    }
+
+    // Scales src to fit its cell, keeping its aspect ratio, centred and resting on the bottom
+    private void put(Graphics2D g, int sprite, BufferedImage src) {
+        int[] fit = fit(sprite, src.getWidth(), src.getHeight());
+        BufferedImage scaled = downscale(src, fit[2], fit[3]);
+        g.drawImage(scaled, cellX[sprite] + fit[0], fit[1], null);
+    }
+
+    // Halves the image with bilinear filtering until the last step, which averages far better
+    // than one big bilinear step from a 1024px source down to 40px
+    private static BufferedImage downscale(BufferedImage src, int w, int h) {
+        BufferedImage current = src;
+        int cw = src.getWidth(), ch = src.getHeight();
+        do {
+            cw = Math.max(w, cw / 2);
+            ch = Math.max(h, ch / 2);
+            BufferedImage next = new BufferedImage(cw, ch, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, cw, ch, null);
+            g.dispose();
+            current = next;
+        } while (cw != w || ch != h);
+        return current;
+    }
+
+    private static BufferedImage silhouette(BufferedImage src, Color color) {
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.drawImage(src, 0, 0, null);
+        g.setComposite(AlphaComposite.SrcIn);
+        g.setColor(color);
+        g.fillRect(0, 0, src.getWidth(), src.getHeight());
+        g.dispose();
+        return out;
+    }
+}
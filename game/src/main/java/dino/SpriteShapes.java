@@ -0,0 +1,136 @@
+package dino;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// The outline of every sprite in the atlas, which collisions are tested against, so the player
+// is only hit by what can be seen. A pixel of a sprite's cell is covered when the sprite's
+// alpha, averaged over the part of the source image that lands on that pixel, is at least half;
+// a sprite drawn at another size samples its cell the way drawImage's nearest-neighbour scaling
+// does. The outlines are worked out from the PNGs' own pixels with integer arithmetic rather
+// than read back from the atlas, which Java2D scales, so every JDK gets the same outlines from
+// the same sprite files, and with them the same simulation. Without the sprite files there are
+// none, and collisions use the plain shapes GamePanel draws in their place (see resolve()).
+public class SpriteShapes {
+    static final int BYTES; // size of the cells as write() stores them
+
+    static {
+        int bytes = 0;
+        for (int i = 0; i < SpriteAtlas.SPRITES; i++) bytes += SpriteAtlas.CELL_W[i] * SpriteAtlas.CELL_H[i];
+        BYTES = bytes;
+    }
+
+    private static volatile boolean loaded = false;
+    private static SpriteShapes shared; // null without the sprite files
+
+    private final byte[][] cells = new byte[SpriteAtlas.SPRITES][]; // 1 where covered, row by row
+    private final int stamp;
+
+    private SpriteShapes(ByteBuffer in) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < SpriteAtlas.SPRITES; i++) {
+            cells[i] = new byte[SpriteAtlas.CELL_W[i] * SpriteAtlas.CELL_H[i]];
+            in.get(cells[i]);
+            crc.update(cells[i]);
+        }
+        stamp = (int) crc.getValue();
+    }
+
+    // Works out which outlines collisions use, once per JVM: the sprites' in the working
+    // directory, from the startup cache when it holds them, or none if a sprite file is missing,
+    // which is reported, since the same runs then collide differently. Every entry point calls
+    // this at startup, before it builds a world, so the decode never lands on the EDT.
+    public static synchronized SpriteShapes resolve() {
+        if (loaded) return shared;
+        StartupCache cache = StartupCache.current();
+        SpriteShapes shapes = cache != null ? cache.shapes() : null;
+        if (shapes == null) {
+            try {
+                BufferedImage dino = Assets.read("dino.png");
+                BufferedImage obstacle = Assets.read("obstacle.png");
+                BufferedImage collectible = Assets.read("collectible.png");
+                if (dino != null && obstacle != null && collectible != null) {
+                    shapes = build(dino, obstacle, collectible);
+                } else {
+                    System.err.println("Sprites missing from " + Paths.get("").toAbsolutePath()
+                        + ": collisions use the plain shapes, and runs won't match those played with sprites");
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read the sprites", ex);
+            }
+        }
+        shared = shapes;
+        loaded = true;
+        return shapes;
+    }
+
+    // The outlines resolve() settled on; null without the sprite files
+    public static SpriteShapes shared() {
+        return loaded ? shared : resolve();
+    }
+
+    static SpriteShapes build(BufferedImage dino, BufferedImage obstacle, BufferedImage collectible) {
+        ByteBuffer out = ByteBuffer.allocate(BYTES);
+        for (int i = 0; i < SpriteAtlas.SPRITES; i++) {
+            BufferedImage src = i == SpriteAtlas.DINO || i == SpriteAtlas.DINO_HIT ? dino
+                : i == SpriteAtlas.COLLECTIBLE ? collectible : obstacle;
+            out.put(outline(i, src));
+        }
+        return new SpriteShapes(out.flip());
+    }
+
+    // Outlines stored by write(), e.g. in the startup cache
+    static SpriteShapes read(ByteBuffer in) {
+        if (in.remaining() != BYTES) throw new IllegalArgumentException("Sprite outlines take " + BYTES + " bytes");
+        return new SpriteShapes(in.duplicate());
+    }
+
+    void write(ByteBuffer out) {
+        for (byte[] cell : cells) out.put(cell);
+    }
+
+    // Identifies the outlines, so a run recorded with other sprites isn't replayed with these
+    public int getStamp() { return stamp; }
+
+    // Whether pixel (x, y) of the sprite drawn at w x h is covered
+    public boolean covers(int sprite, int w, int h, int x, int y) {
+        int cw = SpriteAtlas.CELL_W[sprite], ch = SpriteAtlas.CELL_H[sprite];
+        int cx = (int) ((2L * x + 1) * cw / (2L * w));
+        int cy = (int) ((2L * y + 1) * ch / (2L * h));
+        return cells[sprite][cy * cw + cx] != 0;
+    }
+
+    // Where SpriteAtlas.put places the image in the cell, each pixel there covered if the mean
+    // alpha of the source pixels it is scaled from is at least half
+    private static byte[] outline(int sprite, BufferedImage src) {
+        int cw = SpriteAtlas.CELL_W[sprite], ch = SpriteAtlas.CELL_H[sprite];
+        int srcW = src.getWidth(), srcH = src.getHeight();
+        int[] fit = SpriteAtlas.fit(sprite, srcW, srcH);
+        int fw = fit[2], fh = fit[3];
+        // Alpha summed over each source column's share of every cell row, one cell row at a time
+        long[] sums = new long[srcW];
+        int[] row = new int[srcW];
+        byte[] cell = new byte[cw * ch];
+        for (int py = 0; py < fh; py++) {
+            int sy0 = (int) ((long) py * srcH / fh), sy1 = Math.max(sy0 + 1, (int) ((long) (py + 1) * srcH / fh));
+            Arrays.fill(sums, 0);
+            for (int sy = sy0; sy < sy1; sy++) {
+                src.getRGB(0, sy, srcW, 1, row, 0, srcW);
+                for (int sx = 0; sx < srcW; sx++) sums[sx] += row[sx] >>> 24;
+            }
+            for (int px = 0; px < fw; px++) {
+                int sx0 = (int) ((long) px * srcW / fw), sx1 = Math.max(sx0 + 1, (int) ((long) (px + 1) * srcW / fw));
+                long sum = 0;
+                for (int sx = sx0; sx < sx1; sx++) sum += sums[sx];
+                long count = (long) (sx1 - sx0) * (sy1 - sy0);
+                if (2 * sum >= 255 * count) cell[(fit[1] + py) * cw + fit[0] + px] = 1;
+            }
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,242 @@
+package dino;
+
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Everything the first screens load, kept in one file that is memory-mapped on the next launch:
+// the built-in levels' entity tables, the decoded pixels of the level backgrounds and the
+// sprite atlas, and the sprites' collision outlines. Reading it back is a bulk copy per image
+// instead of a PNG decode (and the atlas's repeated downscaling), which is most of what stands
+// between starting the game and its first frame. Assets writes it in the background after a
+// launch that found none.
+//
+// The cache is only used if it was built from the same files: the header holds a stamp of the
+// size and modification time of every source file, and a CRC32 of the rest, so a changed asset,
+// a half-written file or a different format all just mean decoding from scratch and writing a
+// new cache. -Ddino.startupCache=false turns it off.
+//
+// Layout (little-endian):
+//   magic, version (ints), stamp (long), crc32 of everything after it, entry count (ints),
+//   then per entry: kind, key, byte length, and the bytes, padded to a whole int.
+//   LEVEL entries hold a .dlvl file as LevelData maps it, keyed by level.
+//   IMAGE entries hold transparency, width, height and then ARGB pixels row by row, keyed by
+//   level for backgrounds and ATLAS for the sprites; a 0x0 image records that there is none.
+//   A SHAPES entry holds the sprite outlines as SpriteShapes.write() stores them.
+public class StartupCache {
+    static final int MAGIC = 0x43555344; // "DSUC"
+    // Bumped whenever the layout, or what build() packs into the atlas, changes
+    static final int VERSION = 2;
+    static final Path FILE = Paths.get("cache", "startup.bin");
+    static final int LEVELS = 5; // built-in levels
+    static final int ATLAS = 0; // image key of the sprite atlas; backgrounds use their level
+
+    private static final int LEVEL = 0;
+    private static final int IMAGE = 1;
+    private static final int SHAPES = 2;
+    private static final int CRC_AT = 16; // byte offset of the crc, which covers everything after it
+    private static final int HEADER_BYTES = 24;
+    private static final int ENTRY_BYTES = 12;
+
+    private static volatile StartupCache current;
+
+    private final Map<Integer, ByteBuffer> levels = new HashMap<>();
+    private final Map<Integer, ByteBuffer> images = new HashMap<>();
+    private ByteBuffer shapes;
+
+    private StartupCache() {
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equals(System.getProperty("dino.startupCache"));
+    }
+
+    // The cache opened at startup, or null if there is none or it didn't match the files
+    public static StartupCache current() {
+        return current;
+    }
+
+    // Maps the cache file if it is complete and was built from the current files; else null
+    static StartupCache openCurrent() {
+        StartupCache cache = null;
+        try {
+            cache = open(FILE, sourceStamp());
+        } catch (IOException ex) {
+            System.err.println("Ignoring startup cache: " + ex.getMessage());
+        }
+        current = cache;
+        return cache;
+    }
+
+    static StartupCache open(Path file, long stamp) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException ex) {
+            return null; // first launch
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getLong(8) != stamp) {
+            return null; // another version, or built from other files
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(CRC_AT + 4));
+        int count = buffer.getInt(CRC_AT + 4);
+        if ((int) crc.getValue() != buffer.getInt(CRC_AT) || count < 0) {
+            throw new IOException(file + " is corrupt");
+        }
+        StartupCache cache = new StartupCache();
+        int pos = HEADER_BYTES;
+        for (int i = 0; i < count; i++) {
+            if (pos + ENTRY_BYTES > buffer.limit()) throw new IOException(file + " is truncated");
+            int kind = buffer.getInt(pos), key = buffer.getInt(pos + 4), length = buffer.getInt(pos + 8);
+            pos += ENTRY_BYTES;
+            if (length < 0 || pos + length > buffer.limit()) throw new IOException(file + " is truncated");
+            ByteBuffer entry = buffer.slice(pos, length).order(ByteOrder.LITTLE_ENDIAN);
+            if (kind == LEVEL) cache.levels.put(key, entry);
+            if (kind == IMAGE) cache.images.put(key, entry);
+            if (kind == SHAPES) cache.shapes = entry;
+            pos += (length + 3) & ~3;
+        }
+        return cache;
+    }
+
+    // A built-in level, or null if the cache doesn't hold it
+    public LevelData level(int level) {
+        ByteBuffer entry = levels.get(level);
+        return entry == null ? null : LevelData.wrap(entry.duplicate());
+    }
+
+    public boolean hasImage(int key) {
+        return images.containsKey(key);
+    }
+
+    // A compatible copy of a cached image; null if the cache records there being none
+    public BufferedImage image(int key) {
+        IntBuffer in = images.get(key).duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int transparency = in.get(), w = in.get(), h = in.get();
+        if (w == 0 || h == 0) return null;
+        BufferedImage pixels = new BufferedImage(w, h,
+            transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        in.get(((DataBufferInt) pixels.getRaster().getDataBuffer()).getData());
+        return Assets.toCompatible(pixels, transparency);
+    }
+
+    // The sprite outlines, or null if the cache doesn't hold them
+    public SpriteShapes shapes() {
+        return shapes == null ? null : SpriteShapes.read(shapes);
+    }
+
+    // Writes a cache of the levels, images and outlines, replacing the file only once it is
+    // complete. backgrounds[n] is level n's background, null where there is none.
+    static void write(Path file, long stamp, LevelData[] levelData, BufferedImage[] backgrounds,
+                      BufferedImage atlas, SpriteShapes shapes) throws IOException {
+        int count = 0;
+        long size = HEADER_BYTES;
+        for (int n = 1; n <= LEVELS; n++) {
+            if (levelData[n] != null) {
+                count++;
+                size += ENTRY_BYTES + ((levelData[n].bytes().remaining() + 3) & ~3);
+            }
+            count++;
+            size += ENTRY_BYTES + imageBytes(backgrounds[n]);
+        }
+        count++;
+        size += ENTRY_BYTES + imageBytes(atlas);
+        count++;
+        size += ENTRY_BYTES + ((SpriteShapes.BYTES + 3) & ~3);
+        if (size > Integer.MAX_VALUE) throw new IOException("Startup cache would be too large");
+        ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putLong(stamp).putInt(0).putInt(count);
+        for (int n = 1; n <= LEVELS; n++) {
+            if (levelData[n] != null) {
+                ByteBuffer level = levelData[n].bytes();
+                out.putInt(LEVEL).putInt(n).putInt(level.remaining()).put(level);
+                while ((out.position() & 3) != 0) out.put((byte) 0);
+            }
+            putImage(out, n, backgrounds[n]);
+        }
+        putImage(out, ATLAS, atlas);
+        out.putInt(SHAPES).putInt(0).putInt(SpriteShapes.BYTES);
+        shapes.write(out);
+        while ((out.position() & 3) != 0) out.put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(out.duplicate().flip().position(CRC_AT + 4));
+        out.putInt(CRC_AT, (int) crc.getValue());
+        out.flip();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) channel.write(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int imageBytes(BufferedImage image) {
+        return 12 + (image == null ? 0 : 4 * image.getWidth() * image.getHeight());
+    }
+
+    private static void putImage(ByteBuffer out, int key, BufferedImage image) {
+        out.putInt(IMAGE).putInt(key).putInt(imageBytes(image));
+        if (image == null) {
+            out.putInt(Transparency.OPAQUE).putInt(0).putInt(0);
+            return;
+        }
+        int w = image.getWidth(), h = image.getHeight();
+        out.putInt(image.getColorModel().getTransparency()).putInt(w).putInt(h);
+        // Read a row at a time; getRGB leaves the image accelerated, unlike touching its raster
+        int[] row = new int[w];
+        IntBuffer pixels = out.asIntBuffer();
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, row, 0, w);
+            pixels.put(row);
+        }
+        out.position(out.position() + 4 * w * h);
+    }
+
+    // Files the cache is built from, by path, size and modification time
+    static long sourceStamp() throws IOException {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        for (Path source : sources()) {
+            long size = -1, modified = -1;
+            if (Files.exists(source)) {
+                BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+                size = attrs.size();
+                modified = attrs.lastModifiedTime().toMillis();
+            }
+            for (long v : new long[] {source.toString().hashCode(), size, modified}) {
+                hash = (hash ^ v) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private static Path[] sources() {
+        Path[] sources = new Path[2 * LEVELS + 3];
+        for (int n = 1; n <= LEVELS; n++) {
+            sources[2 * n - 2] = Paths.get("levels", "level" + n + ".dlvl");
+            sources[2 * n - 1] = Assets.backgroundPath(n);
+        }
+        sources[2 * LEVELS] = Paths.get("dino.png");
+        sources[2 * LEVELS + 1] = Paths.get("obstacle.png");
+        sources[2 * LEVELS + 2] = Paths.get("collectible.png");
+        return sources;
+    }
+}
@@ -0,0 +1,166 @@
+package dino;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
+
+// Pre-rendered strips of everything that scrolls with the level but never changes: the tiled
+// background, the ground split around holes, the dark underlay, the platform tick lines and the
+// finish line. The level is cut into CHUNK_WIDTH-wide chunks. A chunk is drawn into a strip the
+// first time it comes into view, and each frame then blits the one or two strips under the
+// camera. Strips sit in a small ring indexed by chunk, so a strip the camera has left behind is
+// re-rendered for the next chunk instead of being kept.
+//
+// On a screen, strips are VolatileImages so they can live in video memory; they are validated
+// before every use and re-rendered if their contents were lost, e.g. after a display change.
+// Offscreen and headless rendering use plain images.
+public class StaticLayerCache {
+    public static final int CHUNK_WIDTH = 1024;
+    private static final int SLOTS = 3; // the view spans at most two chunks
+    private static final int LINE_SPACING = 60;
+    private static final Color GROUND_COLOR = new Color(200, 200, 200);
+    private static final Color UNDERLAY_COLOR = new Color(60, 60, 60); // dark grey/blackish
+    private static final Color TICK_LINE_COLOR = new Color(180, 180, 180);
+
+    private final Image[] strips = new Image[SLOTS];
+    private final int[] stripChunk = new int[SLOTS]; // chunk each slot holds, -1 when it must be redrawn
+    private int stripHeight = 0;
+    private BufferedImage background = null; // yellow sky until the level's image is loaded
+    private int layoutVersion = 0; // the world's layout version the strips were drawn from
+
+    public StaticLayerCache() {
+        Arrays.fill(stripChunk, -1);
+    }
+
+    // Anything drawn so far belongs to another level or background
+    public void invalidate() {
+        Arrays.fill(stripChunk, -1);
+    }
+
+    // Only the chunks overlapping world x range [fromX, toX) changed
+    public void invalidate(int fromX, int toX) {
+        for (int i = 0; i < SLOTS; i++) {
+            int chunkX = stripChunk[i] * CHUNK_WIDTH;
+            if (stripChunk[i] >= 0 && chunkX < toX && fromX < chunkX + CHUNK_WIDTH) stripChunk[i] = -1;
+        }
+    }
+
+    public void setBackground(BufferedImage background) {
+        this.background = background;
+        invalidate();
+    }
+
+    // Draws the static layers for a view of 'width' x 'height' at 'cameraOffset'. The snapshot
+    // must hold every hole in the chunks under the view (see WorldSnapshot.capture).
+    public void draw(Graphics g, WorldSnapshot snap, int cameraOffset, int width, int height) {
+        if (height != stripHeight) {
+            flush();
+            stripHeight = height;
+        }
+        if (snap.layoutVersion != layoutVersion) {
+            // A reload changed the ground; if more than one did since the last frame, redraw it all
+            if (snap.layoutVersion == layoutVersion + 1) {
+                invalidate(snap.layoutChangeFrom, snap.layoutChangeTo);
+            } else {
+                invalidate();
+            }
+            layoutVersion = snap.layoutVersion;
+        }
+        GraphicsConfiguration gc = ((Graphics2D) g).getDeviceConfiguration();
+        int last = Math.floorDiv(cameraOffset + width - 1, CHUNK_WIDTH);
+        for (int chunk = Math.floorDiv(cameraOffset, CHUNK_WIDTH); chunk <= last; chunk++) {
+            int slot = Math.floorMod(chunk, SLOTS);
+            Image strip = validStrip(gc, slot, chunk, snap);
+            g.drawImage(strip, chunk * CHUNK_WIDTH - cameraOffset, 0, null);
+            if (strip instanceof VolatileImage && ((VolatileImage) strip).contentsLost()) {
+                stripChunk[slot] = -1; // lost while drawing; redrawn next frame
+            }
+        }
+    }
+
+    // The slot's strip, ready to blit with the given chunk on it
+    private Image validStrip(GraphicsConfiguration gc, int slot, int chunk, WorldSnapshot snap) {
+        Image strip = strips[slot];
+        if (strip instanceof VolatileImage) {
+            int status = ((VolatileImage) strip).validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                strip.flush(); // moved to another screen: needs a new image for it
+                strip = null;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                stripChunk[slot] = -1;
+            }
+        }
+        if (strip == null) {
+            strip = Assets.createAccelerated(gc, CHUNK_WIDTH, stripHeight, Transparency.OPAQUE);
+            strips[slot] = strip;
+            stripChunk[slot] = -1;
+        }
+        if (stripChunk[slot] != chunk) {
+            Graphics sg = strip.getGraphics();
+            try {
+                drawChunk(sg, snap, chunk * CHUNK_WIDTH, stripHeight);
+            } finally {
+                sg.dispose();
+            }
+            stripChunk[slot] = chunk;
+        }
+        return strip;
+    }
+
+    private void flush() {
+        for (int i = 0; i < SLOTS; i++) {
+            if (strips[i] != null) strips[i].flush();
+            strips[i] = null;
+            stripChunk[i] = -1;
+        }
+    }
+
+    // The static layers of one chunk, drawn as a view of CHUNK_WIDTH at 'chunkX' would show them
+    private void drawChunk(Graphics g, WorldSnapshot snap, int chunkX, int height) {
+        int width = CHUNK_WIDTH;
+        EntityStore holes = snap.holes;
+        if (background != null) {
+            // Loop the background image horizontally
+            int bgWidth = background.getWidth();
+            for (int x = -(chunkX % bgWidth); x < width; x += bgWidth) {
+                g.drawImage(background, x, 0, null);
+            }
+        } else {
+            g.setColor(Color.YELLOW); // Set background to yellow
+            g.fillRect(0, 0, width, height);
+        }
+        // Draw ground/terrain in front of obstacles, with holes
+        g.setColor(GROUND_COLOR);
+        int lastX = 0;
+        for (int i = 0; i < holes.size(); i++) {
+            int screenX = holes.x[i] - chunkX;
+            if (screenX > width) continue;
+            if (screenX > lastX) {
+                g.fillRect(lastX, 290, screenX - lastX, 30);
+            }
+            lastX = screenX + holes.w[i];
+        }
+        if (lastX < width) {
+            g.fillRect(lastX, 290, width - lastX, 30);
+        }
+        // Draw a dark area under the platform to separate ground from sky
+        g.setColor(UNDERLAY_COLOR);
+        g.fillRect(0, 320, width, height - 320);
+        // Draw vertical lines on the platform to show movement, walking the sorted holes
+        // alongside the lines instead of testing every hole per line
+        g.setColor(TICK_LINE_COLOR);
+        int h = 0;
+        for (int x = -(chunkX % LINE_SPACING); x < width; x += LINE_SPACING) {
+            while (h < holes.size() && holes.x[h] + holes.w[h] - chunkX <= x) h++;
+            boolean inHole = h < holes.size() && x >= holes.x[h] - chunkX;
+            if (!inHole) g.drawLine(x, 290, x, 320);
+        }
+        // Draw finish line at the end of the level
+        int finishX = snap.levelLength - chunkX;
+        if (finishX + 10 > 0 && finishX < width) {
+            g.setColor(Color.ORANGE);
+            g.fillRect(finishX, 0, 10, height);
+        }
+    }
+}
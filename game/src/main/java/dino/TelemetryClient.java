@@ -0,0 +1,147 @@
+package dino;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A minimal consumer of the telemetry stream, to test the server against and to measure what it
+// costs: connects one or more clients to a running game, decodes and acknowledges every frame,
+// and prints each client's frame rate and bandwidth once a second, with the last state received.
+//
+// Usage: java -cp game/target/classes dino.TelemetryClient --port N [--clients N] [--seconds N]
+// with the game started as java -Ddino.telemetryPort=N ... dino.Main
+public class TelemetryClient implements Runnable {
+    private final InetSocketAddress address;
+    // Per client: bytes received, frames decoded, keyframes among them
+    private final AtomicLongArray bytes, frames, keyframes;
+    private final int index;
+    private final TelemetryFrame[] history = new TelemetryFrame[TelemetryServer.HISTORY];
+    private final TelemetryFrame empty = new TelemetryFrame();
+    private final TelemetryFrame last = new TelemetryFrame(); // copy of the newest frame, for printing
+
+    private TelemetryClient(InetSocketAddress address, int index, AtomicLongArray bytes,
+                            AtomicLongArray frames, AtomicLongArray keyframes) {
+        this.address = address;
+        this.index = index;
+        this.bytes = bytes;
+        this.frames = frames;
+        this.keyframes = keyframes;
+        for (int i = 0; i < history.length; i++) history[i] = new TelemetryFrame();
+    }
+
+    @Override
+    public void run() {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            ByteBuffer body = ByteBuffer.allocate(256);
+            ByteBuffer ack = ByteBuffer.allocate(4);
+            while (true) {
+                header.clear();
+                readFully(channel, header);
+                int length = header.getInt(0);
+                if (body.capacity() < length) body = ByteBuffer.allocate(length);
+                body.clear().limit(length);
+                readFully(channel, body);
+                body.flip();
+                int seq = body.getInt(), baseSeq = body.getInt();
+                TelemetryFrame base = empty;
+                if (baseSeq >= 0) {
+                    base = history[baseSeq % history.length];
+                    if (base.seq != baseSeq) throw new IOException("Frame " + seq + " is based on unknown frame " + baseSeq);
+                } else {
+                    keyframes.incrementAndGet(index);
+                }
+                TelemetryFrame frame = history[seq % history.length];
+                frame.decodeDelta(base, body, seq);
+                synchronized (last) {
+                    last.copyFrom(frame);
+                }
+                bytes.addAndGet(index, 4 + length);
+                frames.incrementAndGet(index);
+                ack.clear();
+                ack.putInt(seq).flip();
+                while (ack.hasRemaining()) channel.write(ack);
+            }
+        } catch (EOFException ex) {
+            System.out.println("client " + index + ": game closed the stream");
+        } catch (IOException | RuntimeException ex) {
+            System.out.println("client " + index + ": " + ex);
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new EOFException();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = -1, clients = 1, seconds = Integer.MAX_VALUE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--clients": clients = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Usage: TelemetryClient --port N [--clients N] [--seconds N]");
+                    System.exit(2);
+            }
+        }
+        if (port < 0) {
+            System.err.println("Usage: TelemetryClient --port N [--clients N] [--seconds N]");
+            System.exit(2);
+        }
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        AtomicLongArray bytes = new AtomicLongArray(clients);
+        AtomicLongArray frames = new AtomicLongArray(clients);
+        AtomicLongArray keyframes = new AtomicLongArray(clients);
+        TelemetryClient[] consumers = new TelemetryClient[clients];
+        for (int i = 0; i < clients; i++) {
+            consumers[i] = new TelemetryClient(address, i, bytes, frames, keyframes);
+            Thread t = new Thread(consumers[i], "telemetry-client-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        long[] lastBytes = new long[clients], lastFrames = new long[clients];
+        long[] totalBytes = new long[clients], totalFrames = new long[clients];
+        for (int s = 1; s <= seconds; s++) {
+            Thread.sleep(1000);
+            for (int i = 0; i < clients; i++) {
+                long b = bytes.get(i), f = frames.get(i);
+                System.out.println(String.format("client %d: %4d frames/s %7d B/s %6.1f B/frame  %s",
+                    i, f - lastFrames[i], b - lastBytes[i], f == lastFrames[i] ? 0.0 : (double) (b - lastBytes[i]) / (f - lastFrames[i]),
+                    describe(consumers[i].last)));
+                lastBytes[i] = b;
+                lastFrames[i] = f;
+                totalBytes[i] = b;
+                totalFrames[i] = f;
+            }
+        }
+        for (int i = 0; i < clients; i++) {
+            System.out.println(String.format("client %d total: %d frames, %d keyframes, %d bytes, %.1f B/frame",
+                i, totalFrames[i], keyframes.get(i), totalBytes[i],
+                totalFrames[i] == 0 ? 0.0 : (double) totalBytes[i] / totalFrames[i]));
+        }
+    }
+
+    private static String describe(TelemetryFrame f) {
+        synchronized (f) {
+            return f.seq < 0 ? "(nothing yet)" : describeFrame(f);
+        }
+    }
+
+    private static String describeFrame(TelemetryFrame f) {
+        int first = f.get(TelemetryFrame.COLLECTIBLE_BASE), count = f.get(TelemetryFrame.COLLECTIBLE_COUNT);
+        StringBuilder flags = new StringBuilder();
+        for (int id = first; id < first + Math.min(count, 32); id++) flags.append(f.isCollected(id) ? '#' : '.');
+        if (count > 32) flags.append("...");
+        return String.format("tick %d level %d camera %d x %d jump %d health %d collected %d [%s]",
+            f.get(TelemetryFrame.TICK), f.get(TelemetryFrame.LEVEL), f.get(TelemetryFrame.CAMERA_OFFSET),
+            f.get(TelemetryFrame.PLAYER_X), f.get(TelemetryFrame.JUMP_Y), f.get(TelemetryFrame.HEALTH),
+            f.get(TelemetryFrame.COLLECTED_COUNT), flags);
+    }
+}
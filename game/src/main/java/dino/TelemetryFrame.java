@@ -0,0 +1,161 @@
+package dino;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// One tick of game state as the telemetry stream carries it, and the delta codec for it. A frame
+// is encoded against a base frame the receiver already has (an empty frame for a keyframe): a
+// mask of the fields that changed, each changed field as a zigzag varint of its difference, and
+// the collectibles whose collected flag differs from the base, as varint gaps between their ids.
+// A typical tick, where only the tick, the camera and the jump move, comes to about five bytes.
+//
+// Collectibles are identified by id: their index in the world's store plus collectibleBase, the
+// number an endless run has dropped behind the camera, so ids stay put as the store slides.
+// Flags are kept for the ids in [collectibleBase, collectibleBase + collectibleCount).
+public class TelemetryFrame {
+    // Fields, in the order they are encoded; bit i of the change mask is field i
+    static final int TICK = 0;
+    static final int LEVEL = 1;
+    static final int CAMERA_OFFSET = 2;
+    static final int PLAYER_X = 3;
+    static final int JUMP_Y = 4;
+    static final int HEALTH = 5;
+    static final int COLLECTED_COUNT = 6;
+    static final int COLLECTIBLE_BASE = 7;
+    static final int COLLECTIBLE_COUNT = 8;
+    static final int FIELDS = 9;
+
+    int seq = -1; // publish order; -1 for the empty base of keyframes
+    final int[] fields = new int[FIELDS];
+    long[] collected = new long[1]; // bit i: collectible collectibleBase + i is collected
+
+    public int get(int field) { return fields[field]; }
+
+    public boolean isCollected(int id) {
+        int i = id - fields[COLLECTIBLE_BASE];
+        return i >= 0 && i < fields[COLLECTIBLE_COUNT] && (collected[i >>> 6] & (1L << i)) != 0;
+    }
+
+    void capture(GameWorld world, int seq) {
+        this.seq = seq;
+        fields[TICK] = world.getTick();
+        fields[LEVEL] = world.getLevel();
+        fields[CAMERA_OFFSET] = world.getCameraOffset();
+        fields[PLAYER_X] = world.getPlayerX();
+        fields[JUMP_Y] = world.getJumpY();
+        fields[HEALTH] = world.getHealth();
+        fields[COLLECTED_COUNT] = world.getCollectedCount();
+        fields[COLLECTIBLE_BASE] = world.getCollectibleBase();
+        EntityStore collectibles = world.getCollectibles();
+        int n = collectibles.size();
+        fields[COLLECTIBLE_COUNT] = n;
+        clearFlags(n);
+        for (int i = 0; i < n; i++) {
+            if (collectibles.isCollected(i)) collected[i >>> 6] |= 1L << i;
+        }
+    }
+
+    void copyFrom(TelemetryFrame other) {
+        seq = other.seq;
+        System.arraycopy(other.fields, 0, fields, 0, FIELDS);
+        int words = (other.fields[COLLECTIBLE_COUNT] + 63) >>> 6;
+        if (collected.length < words) collected = new long[words];
+        System.arraycopy(other.collected, 0, collected, 0, words);
+    }
+
+    void clear() {
+        seq = -1;
+        Arrays.fill(fields, 0);
+        clearFlags(0);
+    }
+
+    // Room for 'count' flags, all clear; only grows when a level has more collectibles than any before
+    private void clearFlags(int count) {
+        int words = Math.max(1, (count + 63) >>> 6);
+        if (collected.length < words) {
+            collected = new long[words];
+        } else {
+            Arrays.fill(collected, 0, words, 0L);
+        }
+    }
+
+    // Upper bound on the bytes encodeDelta writes for this frame against 'base'
+    int maxEncodedBytes(TelemetryFrame base) {
+        return 5 * (FIELDS + 2) + 5 * (fields[COLLECTIBLE_COUNT] + base.fields[COLLECTIBLE_COUNT]);
+    }
+
+    // Writes this frame as a delta against 'base'
+    void encodeDelta(TelemetryFrame base, ByteBuffer out) {
+        int mask = 0;
+        for (int f = 0; f < FIELDS; f++) {
+            if (fields[f] != base.fields[f]) mask |= 1 << f;
+        }
+        putVarint(out, mask);
+        for (int f = 0; f < FIELDS; f++) {
+            if ((mask & (1 << f)) != 0) putVarint(out, zigzag(fields[f] - base.fields[f]));
+        }
+        // Flags that differ from what the receiver will carry over from the base
+        int first = fields[COLLECTIBLE_BASE], end = first + fields[COLLECTIBLE_COUNT];
+        int changed = 0;
+        for (int id = first; id < end; id++) {
+            if (isCollected(id) != base.isCollected(id)) changed++;
+        }
+        putVarint(out, changed);
+        int last = first;
+        for (int id = first; id < end; id++) {
+            if (isCollected(id) != base.isCollected(id)) {
+                putVarint(out, id - last);
+                last = id;
+            }
+        }
+    }
+
+    // Reads a frame written by encodeDelta against 'base'
+    void decodeDelta(TelemetryFrame base, ByteBuffer in, int seq) {
+        this.seq = seq;
+        int mask = getVarint(in);
+        for (int f = 0; f < FIELDS; f++) {
+            fields[f] = base.fields[f] + ((mask & (1 << f)) != 0 ? unzigzag(getVarint(in)) : 0);
+        }
+        int first = fields[COLLECTIBLE_BASE], count = fields[COLLECTIBLE_COUNT];
+        if (count < 0) throw new IllegalArgumentException("Bad collectible count " + count);
+        clearFlags(count);
+        for (int i = 0; i < count; i++) {
+            if (base.isCollected(first + i)) collected[i >>> 6] |= 1L << i;
+        }
+        int changed = getVarint(in);
+        int id = first;
+        for (int k = 0; k < changed; k++) {
+            id += getVarint(in);
+            int i = id - first;
+            if (i < 0 || i >= count) throw new IllegalArgumentException("Collectible id " + id + " out of range");
+            collected[i >>> 6] ^= 1L << i;
+        }
+    }
+
+    private static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unzigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void putVarint(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IllegalArgumentException("Varint longer than an int");
+    }
+}
@@ -0,0 +1,232 @@
+package dino;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Streams the game's state to local dashboards over TCP on the loopback interface, one frame per
+// tick. Enabled with -Ddino.telemetryPort=<port> (0 picks a free port, printed at start).
+//
+// The simulation thread only captures the world into a TripleBuffer and wakes the selector;
+// encoding and all socket I/O happen on the "telemetry" thread, with non-blocking channels, so a
+// slow or stuck client can never hold up a tick. A client gets a new frame only once its last
+// one has left the socket and it has acknowledged all but MAX_IN_FLIGHT of those sent; until
+// then frames are skipped for it, and the next one it gets is the newest. So a slow client sees
+// fresh state at its own pace instead of a backlog piling up in the socket buffers.
+//
+// Frames are delta-encoded (see TelemetryFrame) against the last frame the client acknowledged,
+// as long as that is still in the server's HISTORY; otherwise the client gets a keyframe.
+// A client acknowledges a frame by sending its seq back as a 4-byte int once it has decoded it,
+// and must keep the frames it decoded over the last HISTORY seqs, as any of them may be a base.
+// TCP rather than UDP keeps framing and ordering simple on loopback; skipping and acks still
+// bound how far a client can fall behind.
+//
+// Wire format, big-endian: per frame, byte length of the rest, seq, base seq (-1 for a
+// keyframe), then the encoded delta.
+public class TelemetryServer implements Runnable {
+    static final int HISTORY = 64;
+    private static final int MAX_IN_FLIGHT = 8; // unacknowledged frames per client
+    private static final int FRAME_HEADER = 12;
+
+    private static TelemetryServer shared;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final TripleBuffer<TelemetryFrame> frames = new TripleBuffer<>(TelemetryFrame::new);
+    private final TelemetryFrame[] history = new TelemetryFrame[HISTORY];
+    private final TelemetryFrame empty = new TelemetryFrame(); // base of keyframes
+    private final List<Client> clients = new ArrayList<>();
+    private int publishedSeq = 0; // owned by the publishing (simulation) thread
+    private int latestSeq = -1; // newest frame in history, owned by the telemetry thread
+    private volatile boolean open = true;
+    private final Thread thread;
+
+    private static class Client {
+        final SocketChannel channel;
+        final SelectionKey key;
+        ByteBuffer out = ByteBuffer.allocate(256);
+        final ByteBuffer acks = ByteBuffer.allocate(64);
+        int sentSeq = -1;
+        int ackedSeq = -1;
+
+        Client(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            out.limit(0); // nothing pending
+        }
+    }
+
+    public TelemetryServer(int port) throws IOException {
+        for (int i = 0; i < HISTORY; i++) history[i] = new TelemetryFrame();
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this, "telemetry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // The process's server if -Ddino.telemetryPort is set, started on first use; else null
+    public static synchronized TelemetryServer shared() {
+        Integer port = Integer.getInteger("dino.telemetryPort");
+        if (shared != null || port == null) return shared;
+        try {
+            shared = new TelemetryServer(port);
+            System.out.println("Telemetry on " + shared.getAddress());
+        } catch (IOException ex) {
+            System.err.println("Telemetry disabled: " + ex.getMessage());
+            System.clearProperty("dino.telemetryPort"); // don't retry for every panel
+        }
+        return shared;
+    }
+
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    // Called by the simulation thread after each tick; never blocks
+    public void publish(GameWorld world) {
+        frames.writeBuffer().capture(world, publishedSeq++);
+        frames.publish();
+        selector.wakeup();
+    }
+
+    public void close() {
+        open = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (open) {
+                selector.select();
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isReadable()) readAcks(client);
+                        if (key.isValid() && key.isWritable()) flush(client);
+                    } catch (IOException ex) {
+                        drop(client);
+                    }
+                }
+                sendLatest();
+            }
+        } catch (IOException ex) {
+            System.err.println("Telemetry stopped: " + ex.getMessage());
+        } finally {
+            for (Client client : new ArrayList<>(clients)) drop(client);
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ex) {
+                // closing anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Client client = new Client(channel, key);
+        key.attach(client);
+        clients.add(client);
+    }
+
+    private void drop(Client client) {
+        clients.remove(client);
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException ex) {
+            // already gone
+        }
+    }
+
+    private void readAcks(Client client) throws IOException {
+        int n = client.channel.read(client.acks);
+        if (n < 0) throw new IOException("client closed");
+        client.acks.flip();
+        while (client.acks.remaining() >= 4) {
+            int seq = client.acks.getInt();
+            // Only frames still in history can serve as a base
+            if (seq > client.ackedSeq && seq <= latestSeq) client.ackedSeq = seq;
+        }
+        client.acks.compact();
+    }
+
+    // Takes the newest published frame into history and sends it to every client that's ready
+    private void sendLatest() {
+        TelemetryFrame frame = frames.read();
+        if (frame.seq == latestSeq || frame.seq < 0) return;
+        latestSeq = frame.seq;
+        history[latestSeq % HISTORY].copyFrom(frame);
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            if (client.out.hasRemaining() || client.sentSeq - client.ackedSeq > MAX_IN_FLIGHT) {
+                continue; // still busy with older frames
+            }
+            try {
+                encode(client, history[latestSeq % HISTORY]);
+                flush(client);
+            } catch (IOException ex) {
+                drop(client);
+            }
+        }
+    }
+
+    private void encode(Client client, TelemetryFrame frame) {
+        TelemetryFrame base = empty;
+        int acked = client.ackedSeq;
+        if (acked >= 0 && latestSeq - acked < HISTORY && history[acked % HISTORY].seq == acked) {
+            base = history[acked % HISTORY];
+        }
+        int needed = FRAME_HEADER + frame.maxEncodedBytes(base);
+        if (client.out.capacity() < needed) client.out = ByteBuffer.allocate(Math.max(needed, 2 * client.out.capacity()));
+        ByteBuffer out = client.out;
+        out.clear();
+        out.position(4);
+        out.putInt(frame.seq).putInt(base.seq);
+        frame.encodeDelta(base, out);
+        out.putInt(0, out.position() - 4);
+        out.flip();
+        client.sentSeq = frame.seq;
+    }
+
+    // Writes what the socket will take now; the rest goes when it's writable again
+    private void flush(Client client) throws IOException {
+        client.channel.write(client.out);
+        int ops = client.out.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (client.key.interestOps() != ops) client.key.interestOps(ops);
+    }
+}
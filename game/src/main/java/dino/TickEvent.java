@@ -0,0 +1,19 @@
+package dino;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event for one simulation tick, committed by GamePanel while PerfMonitor is active
+@Name("dino.Tick")
+@Label("Game Tick")
+@Category("Dino")
+@Description("One fixed-timestep simulation update")
+class TickEvent extends Event {
+    @Label("Level")
+    int level;
+    @Label("Tick")
+    int tick;
+}
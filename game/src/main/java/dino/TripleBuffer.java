@@ -0,0 +1,44 @@
+package dino;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Three buffers shared by a writer that publishes whole states and a reader that wants the
+// latest one. The writer fills its back buffer and swaps it with the middle one; the reader
+// swaps its front buffer for the middle one when a fresh state is waiting. Neither ever waits
+// for the other, and a buffer is never written while it's being read.
+//
+// There is one writer at a time. Reading is synchronized only so the reader's role can pass
+// between threads (the active render loop, then the EDT once a level ends); the writer never
+// touches that lock.
+public class TripleBuffer<T> {
+    private static final int FRESH = 4; // set in 'middle' when the writer has published since the last read
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0; // owned by the writer
+    private int front = 2; // owned by the reader
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < 3; i++) buffers[i] = factory.get();
+    }
+
+    // The buffer to fill before the next publish()
+    @SuppressWarnings("unchecked")
+    public T writeBuffer() {
+        return (T) buffers[back];
+    }
+
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+    }
+
+    // The most recently published state; stays valid until the next read()
+    @SuppressWarnings("unchecked")
+    public synchronized T read() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & ~FRESH;
+        }
+        return (T) buffers[front];
+    }
+}
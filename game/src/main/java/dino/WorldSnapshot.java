@@ -0,0 +1,80 @@
+package dino;
+
+// What the renderer needs from one tick of the world, copied out so a frame can be drawn on
+// another thread while the simulation moves on. Entities are culled to the view as they are
+// copied, so taking a snapshot costs the same however large the level is.
+public class WorldSnapshot {
+    long tickTime; // clock time the tick fell due, for interpolating towards the next one
+    int cameraOffset, prevCameraOffset;
+    int playerX, prevPlayerX;
+    int jumpY, prevJumpY;
+    int characterY, characterR;
+    boolean blinking;
+    int health;
+    int collectedCount;
+    int requiredCollectibles;
+    int levelLength;
+    int layoutVersion, layoutChangeFrom, layoutChangeTo; // see GameWorld.reload
+    // Everything that may overlap the view at any camera position between the last two ticks;
+    // holes cover the whole static-layer chunks under the view
+    final EntityStore obstacles = new EntityStore();
+    final EntityStore collectibles = new EntityStore();
+    final EntityStore holes = new EntityStore();
+    final ParticleSystem particles = new ParticleSystem(GameWorld.MAX_PARTICLES);
+
+    private static final int PARTICLE_MARGIN = 32; // particles are positioned by their centre
+
+    // Cursors into the world's indexes; a snapshot is only ever captured by one thread at a time
+    private final SpatialIndex.Cursor obstacleCursor = new SpatialIndex.Cursor();
+    private final SpatialIndex.Cursor collectibleCursor = new SpatialIndex.Cursor();
+    private final SpatialIndex.Cursor holeCursor = new SpatialIndex.Cursor();
+
+    public void capture(GameWorld world, int viewWidth, long tickTime) {
+        this.tickTime = tickTime;
+        cameraOffset = world.getCameraOffset();
+        prevCameraOffset = world.getPrevCameraOffset();
+        playerX = world.getPlayerX();
+        prevPlayerX = world.getPrevPlayerX();
+        jumpY = world.getJumpY();
+        prevJumpY = world.getPrevJumpY();
+        characterY = world.getCharacterY();
+        characterR = world.getCharacterR();
+        blinking = world.isBlinking();
+        health = world.getHealth();
+        collectedCount = world.getCollectedCount();
+        requiredCollectibles = world.getRequiredCollectibles();
+        levelLength = world.getLevelLength();
+        layoutVersion = world.getLayoutVersion();
+        layoutChangeFrom = world.getLayoutChangeFrom();
+        layoutChangeTo = world.getLayoutChangeTo();
+        int from = Math.min(cameraOffset, prevCameraOffset);
+        int to = Math.max(cameraOffset, prevCameraOffset) + viewWidth;
+        copyVisible(world.getObstacles(), world.getObstacleIndex(), obstacleCursor, obstacles, from, to);
+        copyVisible(world.getCollectibles(), world.getCollectibleIndex(), collectibleCursor, collectibles, from, to);
+        // Holes are wanted for whole chunks, as StaticLayerCache draws the ground a chunk at a time
+        int chunkFrom = Math.floorDiv(from, StaticLayerCache.CHUNK_WIDTH) * StaticLayerCache.CHUNK_WIDTH;
+        int chunkTo = (Math.floorDiv(to - 1, StaticLayerCache.CHUNK_WIDTH) + 1) * StaticLayerCache.CHUNK_WIDTH;
+        copyVisible(world.getHoles(), world.getHoleIndex(), holeCursor, holes, chunkFrom, chunkTo);
+        world.getParticles().copyVisible(particles, from - PARTICLE_MARGIN, to + PARTICLE_MARGIN);
+    }
+
+    private static void copyVisible(EntityStore src, SpatialIndex index, SpatialIndex.Cursor cursor,
+                                    EntityStore dst, int from, int to) {
+        index.query(cursor, from, to);
+        dst.clear();
+        for (int i = cursor.start; i < cursor.end; i++) {
+            int j = dst.add(src.x[i], src.y[i], src.w[i], src.h[i], src.flags[i]);
+            if (src.isCollected(i)) dst.setCollected(j);
+        }
+    }
+
+    // How far the renderer is between this tick and the next at clock time 'now', in [0, 1]
+    public float alphaAt(long now, long stepNanos) {
+        float alpha = (float) (now - tickTime) / stepNanos;
+        return Math.max(0f, Math.min(1f, alpha));
+    }
+
+    public double getCollectedPercent() {
+        return requiredCollectibles == 0 ? 0 : (double) collectedCount / requiredCollectibles * 100.0;
+    }
+}
@@ -0,0 +1,101 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Bytes allocated on the test thread by the two hot paths once they are warmed up, counted by the
+// JVM around each tick and each frame of seeded runs.
+//   - Stepping the world allocates nothing at all.
+//   - Painting is held to PAINT_BUDGET over a whole run. The game allocates nothing there either;
+//     what is left is inside Java2D and the HUD: a blit's bounds Rectangle the JIT doesn't always
+//     scalar-replace, a ground strip redrawn as the view reaches a new chunk, and a HUD line rebuilt
+//     as a String in a frame where its value changed. Together they come to under 2 KB a run, so
+//     even one small object per frame is well over the budget.
+// The JFR events are only allocated while a recording is running, which it isn't here.
+class AllocationTest {
+    private static final int WIDTH = 800, HEIGHT = 400;
+    private static final int TICKS = 3000;
+    private static final int FRAMES = 600;
+    private static final int WARMUP_RUNS = 5;
+    private static final long PAINT_BUDGET = 4 * 1024;
+
+    private com.sun.management.ThreadMXBean threads;
+    private long thread;
+
+    @BeforeEach
+    void enableCounters() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        thread = Thread.currentThread().getId();
+    }
+
+    @Test
+    void ticksAllocateNothing() {
+        for (int level = 1; level <= StartupCache.LEVELS; level++) {
+            GameWorld world = new GameWorld(level);
+            for (int run = 0; run < WARMUP_RUNS; run++) step(world);
+            assertEquals(0, step(world), "level " + level + ": bytes over " + TICKS + " ticks");
+        }
+        for (long seed = 1; seed <= 3; seed++) {
+            GameWorld world = new GameWorld(LevelConfig.endless(seed));
+            for (int run = 0; run < WARMUP_RUNS; run++) step(world);
+            assertEquals(0, step(world), "endless seed " + seed + ": bytes over " + TICKS + " ticks");
+        }
+    }
+
+    @Test
+    void framesStayWithinBudget() {
+        for (int level : new int[] {1, 5}) {
+            GameWorld world = new GameWorld(level);
+            GamePanel panel = new GamePanel(world); // render-only, with its images loaded
+            BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = frame.createGraphics();
+            // Warm up: JIT, the ground strips, the HUD text
+            for (int run = 0; run < WARMUP_RUNS; run++) paint(world, panel, g);
+            long bytes = paint(world, panel, g);
+            g.dispose();
+            assertTrue(bytes <= PAINT_BUDGET, "level " + level + ": " + bytes + " bytes over " + FRAMES
+                + " frames, " + PAINT_BUDGET + " allowed");
+        }
+    }
+
+    // Plays TICKS ticks from the start with seeded jumps and moves, restarting whenever the run
+    // ends, and returns the bytes the ticks allocated; restarts aren't counted
+    private long step(GameWorld world) {
+        world.restart();
+        long bytes = 0;
+        for (int t = 0; t < TICKS; t++) {
+            if (world.isOver()) world.restart();
+            int input = t % 30 == 0 ? GameWorld.INPUT_JUMP : t % 7 == 0 ? GameWorld.INPUT_RIGHT : 0;
+            long before = threads.getThreadAllocatedBytes(thread);
+            world.step(input);
+            bytes += threads.getThreadAllocatedBytes(thread) - before;
+        }
+        return bytes;
+    }
+
+    // Plays FRAMES ticks the same way and draws a frame after every tick; returns the bytes the
+    // frames allocated
+    private long paint(GameWorld world, GamePanel panel, Graphics2D g) {
+        world.restart();
+        long bytes = 0;
+        for (int t = 0; t < FRAMES; t++) {
+            if (world.isOver()) world.restart();
+            world.step(t % 30 == 0 ? GameWorld.INPUT_JUMP : 0);
+            long before = threads.getThreadAllocatedBytes(thread);
+            panel.renderWorld(g, WIDTH, HEIGHT);
+            bytes += threads.getThreadAllocatedBytes(thread) - before;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,179 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Collisions are tested along the player's whole path through a tick, so nothing is skipped
+// however far it moves. Checked here against a reference that simply tests the player at
+// closely spaced points along the path, at speeds far beyond any level's.
+class CollisionSweepTest {
+    private static final int SUBSTEPS = 64;
+
+    @Test
+    void sweepFindsEveryOverlapAlongThePath() {
+        Random random = new Random(7);
+        for (int n = 0; n < 200_000; n++) {
+            int w1 = 1 + random.nextInt(60), h1 = 1 + random.nextInt(60);
+            int w2 = 1 + random.nextInt(20), h2 = 1 + random.nextInt(20);
+            int x0 = random.nextInt(400), y0 = random.nextInt(400);
+            int x1 = x0 + random.nextInt(1001) - 500, y1 = y0 + random.nextInt(201) - 100;
+            int x2 = random.nextInt(400), y2 = random.nextInt(400);
+            boolean swept = GameWorld.sweptOverlaps(x0, y0, x1, y1, w1, h1, x2, y2, w2, h2);
+            for (int k = 0; k <= SUBSTEPS; k++) {
+                int x = x0 + Math.round((x1 - x0) * (float) k / SUBSTEPS);
+                int y = y0 + Math.round((y1 - y0) * (float) k / SUBSTEPS);
+                if (GameWorld.overlaps(x, y, w1, h1, x2, y2, w2, h2)) {
+                    assertTrue(swept, "sweep from (" + x0 + ", " + y0 + ") to (" + x1 + ", " + y1
+                        + ") misses the box at (" + x2 + ", " + y2 + ") overlapped at step " + k);
+                    break;
+                }
+            }
+            // The end of the tick is exactly the static test
+            if (GameWorld.overlaps(x1, y1, w1, h1, x2, y2, w2, h2)) assertTrue(swept);
+        }
+    }
+
+    @Test
+    void sweepCoversSubstepsOnLevels() {
+        for (int level = 1; level <= StartupCache.LEVELS; level++) playSubsteps(new GameWorld(level), level);
+        for (long seed = 1; seed <= 3; seed++) playSubsteps(new GameWorld(LevelConfig.endless(seed)), seed);
+    }
+
+    @Test
+    void sweepCatchesABoxPassedOverInOneTick() {
+        // A 40px box moving 300px to the right, clean past a 4px one, overlaps it at neither end
+        assertTrue(GameWorld.sweptOverlaps(0, 0, 300, 0, 40, 40, 150, 10, 4, 4));
+        assertTrue(!GameWorld.sweptOverlaps(0, 0, 300, 0, 40, 40, 150, 45, 4, 4));
+    }
+
+    @Test
+    void noTunnellingAtHighSpeed() {
+        for (int speed : new int[] {60, 120, 250, 400}) {
+            int[] tally = new int[2];
+            for (long seed = 1; seed <= 3; seed++) play(level(speed), seed, tally);
+            assertTrue(tally[0] > 0 && tally[1] > 0, "nothing hit or picked up at speed " + speed);
+        }
+    }
+
+    // Steps the world with seeded input and tests the player's box at SUBSTEPS points along each
+    // tick's path: every box it overlaps at one of them, the sweep must meet, and a point exactly on
+    // the ground over a hole must end the run. Rounded points only overlap where exact ones do, so
+    // this holds one way; the sweep may also find overlaps between the points.
+    private static void playSubsteps(GameWorld world, long seed) {
+        Random random = new Random(seed);
+        int input = 0;
+        for (int t = 0; t < 3000; t++) {
+            if (world.isOver()) world.restart();
+            if (random.nextInt(8) == 0) input = random.nextInt(8);
+            world.step(input);
+
+            int r = world.getCharacterR(), ground = world.getCharacterY();
+            int fromX = world.getPrevCameraOffset() + world.getPrevPlayerX();
+            int fromTop = ground - world.getPrevJumpY();
+            int toX = world.getCameraOffset() + world.getPlayerX();
+            int toTop = ground - world.getJumpY();
+            String at = "seed " + seed + ", level " + world.getLevel() + ", tick " + world.getTick();
+            for (int k = 0; k <= SUBSTEPS; k++) {
+                int x = fromX + Math.round((toX - fromX) * (float) k / SUBSTEPS);
+                int top = fromTop + Math.round((toTop - fromTop) * (float) k / SUBSTEPS);
+                assertSweepMeets(world.getObstacles(), x, top, r, fromX, fromTop, toX, toTop, at);
+                assertSweepMeets(world.getCollectibles(), x, top, r, fromX, fromTop, toX, toTop, at);
+                // Only exactly on the ground counts, not rounded onto it
+                if ((fromTop - ground) * SUBSTEPS + (toTop - fromTop) * k != 0) continue;
+                EntityStore holes = world.getHoles();
+                for (int i = 0; i < holes.size(); i++) {
+                    if (x >= holes.x[i] + 25 && x < holes.x[i] + holes.w[i] - 25) {
+                        int end = world.getEndReason();
+                        // Running out of health is checked first and ends the run all the same
+                        assertTrue(end == GameWorld.END_HOLE || end == GameWorld.END_HEALTH,
+                            "hole " + i + " crossed at step " + k + ", " + at);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertSweepMeets(EntityStore store, int x, int top, int r,
+                                         int fromX, int fromTop, int toX, int toTop, String at) {
+        for (int i = 0; i < store.size(); i++) {
+            if (GameWorld.overlaps(x, top, r, r, store.x[i], store.y[i], store.w[i], store.h[i])) {
+                assertTrue(GameWorld.sweptOverlaps(fromX, fromTop, toX, toTop, r, r,
+                    store.x[i], store.y[i], store.w[i], store.h[i]), "entry " + i + " at x " + store.x[i] + ", " + at);
+            }
+        }
+    }
+
+    // Obstacles of the usual sizes, further apart than a hit's blink lasts, and collectibles at
+    // heights a jump passes through; at these speeds each is smaller than a tick's movement
+    private static LevelData level(int speed) {
+        EntityStore obstacles = new EntityStore();
+        EntityStore collectibles = new EntityStore();
+        int gap = 12 * speed;
+        for (int i = 0; i < 9; i++) {
+            int size = i % 3;
+            int w = 40 + size * 20, h = 40 + size * 10;
+            obstacles.add(600 + i * gap, 290 - h, w, h, EntityStore.OBSTACLE);
+            collectibles.add(600 + i * gap + gap / 2, i % 2 == 0 ? 120 : 250, 30, 30, EntityStore.COLLECTIBLE);
+        }
+        return LevelData.of(1, speed, 600 + 10 * gap, 9, obstacles, collectibles, new EntityStore());
+    }
+
+    // Plays the level with seeded jumps and checks every tick's hits and pickups against the
+    // reference, adding up how many of each there were in 'tally'
+    private static void play(LevelData data, long seed, int[] tally) {
+        GameWorld world = new GameWorld(data);
+        Random random = new Random(seed);
+        CollisionMask player = GameWorld.playerMask(world.getCharacterR());
+        while (!world.isOver()) {
+            boolean blinking = world.isBlinking();
+            int health = world.getHealth();
+            int collected = world.getCollectedCount();
+            boolean[] wasCollected = new boolean[world.getCollectibles().size()];
+            for (int i = 0; i < wasCollected.length; i++) wasCollected[i] = world.getCollectibles().isCollected(i);
+            world.step(random.nextInt(6) == 0 ? GameWorld.INPUT_JUMP : 0);
+
+            int r = world.getCharacterR();
+            int fromX = world.getPrevCameraOffset() + world.getPrevPlayerX();
+            int fromTop = world.getCharacterY() - world.getPrevJumpY();
+            int toX = world.getCameraOffset() + world.getPlayerX();
+            int toTop = world.getCharacterY() - world.getJumpY();
+            EntityStore obstacles = world.getObstacles();
+            boolean hit = false;
+            for (int i = 0; i < obstacles.size(); i++) {
+                hit |= touches(player, r, fromX, fromTop, toX, toTop, obstacles.x[i], obstacles.y[i],
+                    GameWorld.obstacleMask(obstacles.w[i], obstacles.h[i]));
+            }
+            EntityStore collectibles = world.getCollectibles();
+            int picked = 0;
+            for (int i = 0; i < collectibles.size(); i++) {
+                if (!wasCollected[i] && touches(player, r, fromX, fromTop, toX, toTop, collectibles.x[i],
+                        collectibles.y[i], GameWorld.collectibleMask(collectibles.w[i], collectibles.h[i]))) {
+                    picked++;
+                }
+            }
+            String at = "speed " + world.getObstacleSpeed() + ", seed " + seed + ", tick " + world.getTick();
+            assertEquals(hit && !blinking ? health - GameWorld.HIT_DAMAGE : health, world.getHealth(), "obstacle hit, " + at);
+            assertEquals(collected + picked, world.getCollectedCount(), "collectibles, " + at);
+            if (hit && !blinking) tally[0]++;
+            tally[1] += picked;
+        }
+    }
+
+    // Reference: tests the player's mask at points a quarter pixel apart along its path
+    private static boolean touches(CollisionMask player, int r, int fromX, int fromTop, int toX, int toTop,
+                                   int mx, int my, CollisionMask mask) {
+        int dx = toX - fromX, dy = toTop - fromTop;
+        int n = 4 * Math.max(1, Math.max(Math.abs(dx), Math.abs(dy)));
+        for (int k = 0; k <= n; k++) {
+            int x = fromX + Math.round(dx * (float) k / n);
+            int y = fromTop + Math.round(dy * (float) k / n);
+            if (GameWorld.overlaps(x, y, r, r, mx, my, mask.width, mask.height)
+                    && player.overlaps(x, y, mask, mx, my)) return true;
+        }
+        return false;
+    }
+}
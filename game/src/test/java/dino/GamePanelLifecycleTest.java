@@ -0,0 +1,150 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import javax.swing.JInternalFrame;
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Moving between scenes must leave nothing of the game running once it has been left: no
+// simulation or render thread and no repaint timer, however many round trips are made.
+// Minimizing and restoring the window: pause() must leave nothing running, resume() must bring
+// the game back, or the end screen if the level ended meanwhile.
+class GamePanelLifecycleTest {
+    private static final int ROUND_TRIPS = 10;
+
+    private GamePanel panel;
+
+    @AfterEach
+    void dispose() throws Exception {
+        if (panel != null) run(panel::dispose);
+    }
+
+    @Test
+    void sceneTransitionsLeakNoTimersOrThreads() throws Exception {
+        transitions();
+    }
+
+    @Test
+    void sceneTransitionsLeakNoRenderThreads() throws Exception {
+        System.setProperty("dino.activeRendering", "true");
+        try {
+            transitions();
+        } finally {
+            System.clearProperty("dino.activeRendering");
+        }
+    }
+
+    // What Main does between the menus and the game: the menu, level select, every level in turn,
+    // an endless run and back to the menu, each time reloading the one game scene
+    private void transitions() throws Exception {
+        SceneManager scenes = onEdt(() -> new SceneManager(new JInternalFrame()));
+        for (int trip = 0; trip < ROUND_TRIPS; trip++) {
+            run(() -> scenes.show(new MainMenuPanel(null)));
+            run(() -> scenes.show(new LevelSelectPanel(null, StartupCache.LEVELS)));
+            for (int level = 1; level <= StartupCache.LEVELS; level++) {
+                int n = level;
+                run(() -> {
+                    if (panel == null) {
+                        panel = new GamePanel(null, new GameWorld(n));
+                    } else {
+                        panel.load(LevelData.builtin(n));
+                    }
+                    scenes.show(panel);
+                });
+                assertPlaying();
+            }
+            long seed = trip;
+            run(() -> {
+                panel.load(LevelConfig.endless(seed));
+                scenes.show(panel);
+            });
+            assertPlaying();
+            run(() -> scenes.show(new MainMenuPanel(null)));
+            assertFalse(onEdt(panel::isRunning), "game still running in the menu, round trip " + trip);
+            assertEquals(0, threads("simulation"), "round trip " + trip);
+            assertEquals(0, threads("game-loop"), "round trip " + trip);
+        }
+    }
+
+    private void assertPlaying() throws Exception {
+        Thread.sleep(5);
+        assertTrue(onEdt(panel::isRunning), "not running once shown");
+        assertEquals(1, threads("simulation"));
+        assertEquals(ActiveRenderLoop.isEnabled() ? 1 : 0, threads("game-loop"));
+    }
+
+    @Test
+    void pauseAndResumeLeakNoTimersOrThreads() throws Exception {
+        panel = onEdt(() -> new GamePanel(null, new GameWorld(1)));
+        for (int cycle = 0; cycle < 20; cycle++) {
+            run(cycle == 0 ? panel::start : panel::resume);
+            Thread.sleep(10);
+            assertTrue(onEdt(panel::isRunning), "not running after resume");
+            assertEquals(1, simulationThreads());
+            run(panel::pause);
+            assertFalse(onEdt(panel::isRunning), "still running after pause");
+            assertEquals(0, simulationThreads());
+        }
+    }
+
+    @Test
+    void resumeShowsTheEndScreenIfTheLevelEndedWhilePaused(@TempDir Path replays) throws Exception {
+        System.setProperty("dino.replayDir", replays.toString());
+        try {
+            GameWorld world = new GameWorld(1);
+            while (!world.isOver()) world.step(0); // runs into the obstacles until health is gone
+            panel = onEdt(() -> new GamePanel(null, world));
+            // The simulation plays the end effects for a while before bringing up the end screen;
+            // minimize straight away, before it gets there
+            run(panel::start);
+            run(panel::pause);
+            assertFalse(onEdt(panel::isShowingEndScreen));
+            run(panel::resume);
+            assertTrue(onEdt(panel::isShowingEndScreen), "no end screen after resume");
+            assertFalse(onEdt(panel::isRunning));
+            assertEquals(0, simulationThreads());
+            Thread.sleep(100);
+            run(() -> { }); // anything the simulation posted has run by now
+            assertEquals(1, new File(replays.toString()).list().length, "run saved more than once");
+        } finally {
+            System.clearProperty("dino.replayDir");
+        }
+    }
+
+    private static int simulationThreads() {
+        return threads("simulation");
+    }
+
+    private static int threads(String name) {
+        int n = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals(name) && t.isAlive()) n++;
+        }
+        return n;
+    }
+
+    private interface EdtCall<T> {
+        T call();
+    }
+
+    private static <T> T onEdt(EdtCall<T> call) throws Exception {
+        Object[] result = new Object[1];
+        SwingUtilities.invokeAndWait(() -> result[0] = call.call());
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    private static void run(Runnable r) throws Exception {
+        SwingUtilities.invokeAndWait(r);
+    }
+}
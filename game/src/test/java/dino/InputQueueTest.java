@@ -0,0 +1,40 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// Key events queued during a tick are applied on the next one as if each had been handled on
+// its own: every arrow press moves the player, however many land in the same tick.
+class InputQueueTest {
+
+    @Test
+    void everyPressInATickMoves() {
+        InputQueue queue = new InputQueue(16);
+        GameWorld world = new GameWorld(1);
+        int x = world.getPlayerX();
+        queue.offer(GameWorld.INPUT_RIGHT);
+        queue.offer(GameWorld.INPUT_RIGHT);
+        world.step(queue.drain());
+        assertEquals(x + 40, world.getPlayerX());
+        queue.offer(GameWorld.INPUT_LEFT);
+        queue.offer(GameWorld.INPUT_RIGHT);
+        queue.offer(GameWorld.INPUT_LEFT);
+        world.step(queue.drain());
+        assertEquals(x + 20, world.getPlayerX());
+        world.step(queue.drain()); // nothing queued
+        assertEquals(x + 20, world.getPlayerX());
+    }
+
+    @Test
+    void eventsMergeIntoOneByte() {
+        int input = 0;
+        for (int i = 0; i < 3; i++) input = GameWorld.mergeInput(input, GameWorld.INPUT_JUMP);
+        for (int i = 0; i < 5; i++) input = GameWorld.mergeInput(input, GameWorld.INPUT_LEFT);
+        for (int i = 0; i < 20; i++) input = GameWorld.mergeInput(input, GameWorld.INPUT_RIGHT);
+        assertEquals(GameWorld.INPUT_JUMP, input & GameWorld.INPUT_JUMP);
+        assertEquals(5, GameWorld.leftPresses(input));
+        assertEquals(7, GameWorld.rightPresses(input)); // as many as a byte holds
+        assertEquals(input, input & 0x7F);
+    }
+}
@@ -0,0 +1,24 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class LevelCompilerTest {
+
+    @Test
+    void generatesFewObstacles() {
+        assertEquals(0, LevelCompiler.generate(new LevelConfig(5, 0, 20, 15, 0, 5)).numObstacles);
+        LevelData one = LevelCompiler.generate(new LevelConfig(5, 1, 20, 15, 0, 5));
+        assertEquals(1, one.numObstacles);
+        GameWorld world = new GameWorld(one);
+        assertEquals(600, world.getObstacles().x[0]);
+    }
+
+    @Test
+    void rejectsLevelsTooShortToLayOut() {
+        assertThrows(IllegalArgumentException.class, () -> LevelCompiler.generate(new LevelConfig(5, 4, 1, 5, 0, 5)));
+        assertThrows(IllegalArgumentException.class, () -> LevelCompiler.generate(new LevelConfig(5, -1, 20, 15, 0, 5)));
+    }
+}
@@ -0,0 +1,98 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// A run recorded the way GamePanel records it, written out, read back and replayed headlessly,
+// must leave the world exactly as the recorded run did
+class ReplayTest {
+    private static final int MAX_TICKS = 50_000;
+    private static final int CHECKSUM_AT = 22; // magic, version, endless, level, seed, sprite stamp
+    private static final int[] EVENTS = {GameWorld.INPUT_JUMP, GameWorld.INPUT_LEFT, GameWorld.INPUT_RIGHT};
+
+    @Test
+    void replaysEndInTheRecordedState(@TempDir Path dir) throws Exception {
+        for (int level = 1; level <= StartupCache.LEVELS; level++) {
+            check(new GameWorld(level), level, dir);
+        }
+        for (long seed = 1; seed <= 3; seed++) check(new GameWorld(LevelConfig.endless(seed)), seed, dir);
+    }
+
+    @Test
+    void runsOnAnEditedLevelAreSkipped(@TempDir Path dir) throws Exception {
+        GameWorld world = new GameWorld(2);
+        Path file = dir.resolve("run.dlog");
+        record(world, new Random(1), file);
+        assertNull(Replay.skipReason(RunLog.read(file)));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(CHECKSUM_AT);
+            int checksum = raf.readInt();
+            assertEquals(LevelData.builtin(2).checksum(), checksum);
+            raf.seek(CHECKSUM_AT);
+            raf.writeInt(checksum + 1);
+        }
+        String reason = Replay.skipReason(RunLog.read(file));
+        assertNotNull(reason);
+        assertTrue(reason.contains("edited"), reason);
+    }
+
+    // Records a run of 'world', then a second one after a restart, which carries the player
+    // over from the first, and replays each from its file
+    private static void check(GameWorld world, long seed, Path dir) throws Exception {
+        Random random = new Random(seed);
+        for (int run = 0; run < 2; run++) {
+            if (run > 0) world.restart();
+            Path file = dir.resolve("run-" + world.getLevel() + "-" + seed + "-" + run + ".dlog");
+            record(world, random, file);
+            RunLog log = RunLog.read(file);
+            assertNull(Replay.skipReason(log));
+            assertSameState(world, Replay.play(log), file.getFileName().toString());
+        }
+    }
+
+    // Plays 'world' to the end with seeded input, several key events to a tick at times, and
+    // writes the log of it to 'file'
+    private static void record(GameWorld world, Random random, Path file) throws Exception {
+        RunLog log = RunLog.begin(world);
+        while (!world.isOver()) {
+            assertTrue(world.getTick() < MAX_TICKS, "run doesn't end");
+            int input = 0;
+            for (int events = random.nextInt(8) < 6 ? 0 : 1 + random.nextInt(3); events > 0; events--) {
+                input = GameWorld.mergeInput(input, EVENTS[random.nextInt(EVENTS.length)]);
+            }
+            log.record(world.getTick(), input);
+            world.step(input);
+        }
+        log.finish(world);
+        log.write(file);
+    }
+
+    private static void assertSameState(GameWorld recorded, GameWorld replayed, String run) {
+        assertEquals(recorded.getTick(), replayed.getTick(), run);
+        assertEquals(recorded.getEndReason(), replayed.getEndReason(), run);
+        assertEquals(recorded.getHealth(), replayed.getHealth(), run);
+        assertEquals(recorded.getCollectedCount(), replayed.getCollectedCount(), run);
+        assertEquals(recorded.getPlayerX(), replayed.getPlayerX(), run);
+        assertEquals(recorded.getCameraOffset(), replayed.getCameraOffset(), run);
+        assertEquals(recorded.getJumpY(), replayed.getJumpY(), run);
+        assertEquals(recorded.isJumping(), replayed.isJumping(), run);
+        assertEquals(recorded.isFalling(), replayed.isFalling(), run);
+        assertEquals(recorded.getBlinkTicks(), replayed.getBlinkTicks(), run);
+        assertEquals(recorded.getCollectibleBase(), replayed.getCollectibleBase(), run);
+        EntityStore a = recorded.getCollectibles(), b = replayed.getCollectibles();
+        assertEquals(a.size(), b.size(), run);
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.x[i], b.x[i], run);
+            assertEquals(a.isCollected(i), b.isCollected(i), run + ", collectible " + i);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// The index's cursor ranges against a full scan of the store, over the windows collision asks
+// for as seeded worlds play, and over random stores and windows. For the worlds, every entry
+// the player's path through the tick touches must be in the range as well.
+class SpatialIndexTest {
+    private static final int TICKS = 3000;
+
+    @Test
+    void coversBuiltinLevels() {
+        for (int level = 1; level <= StartupCache.LEVELS; level++) {
+            play(new GameWorld(level), level);
+        }
+    }
+
+    @Test
+    void coversGeneratedLevels() {
+        for (int pattern = 0; pattern < 4; pattern++) {
+            play(new GameWorld(new LevelConfig(pattern, 12, 20, 10 + 3 * pattern, 4, 5)), pattern);
+        }
+    }
+
+    @Test
+    void coversEndlessRuns() {
+        // Endless runs drop entries from the front of the stores as they go
+        for (long seed = 1; seed <= 3; seed++) play(new GameWorld(LevelConfig.endless(seed)), seed);
+    }
+
+    @Test
+    void followsRandomWindows() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            EntityStore store = new EntityStore();
+            int n = random.nextInt(200);
+            for (int i = 0; i < n; i++) {
+                store.add(random.nextInt(20000), 0, 1 + random.nextInt(300), 10, EntityStore.OBSTACLE);
+            }
+            store.sortByX();
+            SpatialIndex index = new SpatialIndex(store);
+            SpatialIndex.Cursor cursor = new SpatialIndex.Cursor();
+            int from = random.nextInt(20000);
+            for (int q = 0; q < 200; q++) {
+                // Mostly small steps either way, as the camera and the player move, with jumps
+                from = random.nextInt(10) == 0 ? random.nextInt(20000) : from + random.nextInt(400) - 150;
+                int to = from + random.nextInt(500);
+                index.query(cursor, from, to);
+                assertCovers(store, cursor.start, cursor.end, from, to);
+                index.query(from, to);
+                assertEquals(cursor.start, index.start);
+                assertEquals(cursor.end, index.end);
+            }
+        }
+    }
+
+    // Steps 'world' with seeded random input, restarting it whenever the run ends, and checks the
+    // range each index gives for the tick's sweep window
+    private static void play(GameWorld world, long seed) {
+        Random random = new Random(seed);
+        SpatialIndex.Cursor obstacles = new SpatialIndex.Cursor();
+        SpatialIndex.Cursor collectibles = new SpatialIndex.Cursor();
+        SpatialIndex.Cursor holes = new SpatialIndex.Cursor();
+        int input = 0;
+        for (int t = 0; t < TICKS; t++) {
+            if (random.nextInt(8) == 0) input = random.nextInt(8);
+            world.step(input);
+            if (world.isOver()) {
+                world.restart();
+                continue;
+            }
+            int r = world.getCharacterR();
+            int fromX = world.getPrevCameraOffset() + world.getPrevPlayerX();
+            int toX = world.getCameraOffset() + world.getPlayerX();
+            int from = Math.min(fromX, toX);
+            int to = Math.max(fromX, toX) + r;
+            int fromTop = world.getCharacterY() - world.getPrevJumpY();
+            int toTop = world.getCharacterY() - world.getJumpY();
+            world.getObstacleIndex().query(obstacles, from, to);
+            assertCovers(world.getObstacles(), obstacles.start, obstacles.end, from, to);
+            assertHitsCovered(world.getObstacles(), obstacles, fromX, fromTop, toX, toTop, r);
+            world.getCollectibleIndex().query(collectibles, from, to);
+            assertCovers(world.getCollectibles(), collectibles.start, collectibles.end, from, to);
+            assertHitsCovered(world.getCollectibles(), collectibles, fromX, fromTop, toX, toTop, r);
+            world.getHoleIndex().query(holes, from, to - r + 1);
+            assertCovers(world.getHoles(), holes.start, holes.end, from, to - r + 1);
+            // A hole only counts where the player is on the ground, 25px in from either edge
+            int ground = world.getCharacterY();
+            if (fromTop != ground && toTop != ground) continue;
+            int lo = fromTop == ground ? (toTop == ground ? Math.min(fromX, toX) : fromX) : toX;
+            int hi = toTop == ground ? (fromTop == ground ? Math.max(fromX, toX) : toX) : fromX;
+            EntityStore h = world.getHoles();
+            for (int i = 0; i < h.size(); i++) {
+                if (lo < h.x[i] + h.w[i] - 25 && hi >= h.x[i] + 25) {
+                    assertTrue(i >= holes.start && i < holes.end,
+                        "hole " + i + " at x " + h.x[i] + " is crossed but not queried");
+                }
+            }
+        }
+    }
+
+    // Every entry the player's box meets along its path lies in the cursor's range
+    private static void assertHitsCovered(EntityStore store, SpatialIndex.Cursor c, int fromX, int fromTop,
+                                          int toX, int toTop, int r) {
+        for (int i = 0; i < store.size(); i++) {
+            if (GameWorld.sweptOverlaps(fromX, fromTop, toX, toTop, r, r,
+                    store.x[i], store.y[i], store.w[i], store.h[i])) {
+                assertTrue(i >= c.start && i < c.end,
+                    "entry " + i + " at x " + store.x[i] + " is hit but not queried");
+            }
+        }
+    }
+
+    // Every entry whose span [x, x + w) overlaps [from, to) lies in [start, end)
+    private static void assertCovers(EntityStore store, int start, int end, int from, int to) {
+        assertTrue(0 <= start && start <= end && end <= store.size(), "range out of bounds");
+        for (int i = 0; i < store.size(); i++) {
+            boolean overlaps = store.x[i] < to && store.x[i] + store.w[i] > from;
+            if (overlaps) {
+                assertTrue(i >= start && i < end,
+                    "entry " + i + " at x " + store.x[i] + " missed by window [" + from + ", " + to + ")");
+            }
+        }
+    }
+}
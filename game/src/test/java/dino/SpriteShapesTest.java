@@ -0,0 +1,94 @@
+package dino;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Collisions follow the sprites as the atlas draws them, not the boxes around them
+class SpriteShapesTest {
+
+    @Test
+    void outlinesMatchTheDrawnSprites() throws Exception {
+        SpriteShapes shapes = SpriteShapes.shared();
+        assertNotNull(shapes, "sprites not found");
+        BufferedImage atlas = SpriteAtlas.build(Assets.read("dino.png"), Assets.read("obstacle.png"),
+            Assets.read("collectible.png")).getImage();
+        int cellX = 0;
+        for (int sprite = 0; sprite < SpriteAtlas.SPRITES; sprite++) {
+            int w = SpriteAtlas.CELL_W[sprite], h = SpriteAtlas.CELL_H[sprite];
+            int differ = 0;
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    int alpha = atlas.getRGB(cellX + x, y) >>> 24;
+                    if (alpha >= 128 == shapes.covers(sprite, w, h, x, y)) continue;
+                    // Java2D's filtering only moves the soft edges, never where the sprite is solid or clear
+                    differ++;
+                    assertTrue(alpha > 16 && alpha < 240, "sprite " + sprite + " differs from the atlas at ("
+                        + x + ", " + y + "), alpha " + alpha);
+                }
+            }
+            assertTrue(differ <= w * h / 25, "sprite " + sprite + " differs from the atlas in " + differ + " pixels");
+            cellX += w + 1;
+        }
+    }
+
+    @Test
+    void collisionMasksAreTheOutlines() {
+        SpriteShapes shapes = SpriteShapes.shared();
+        int[][] sizes = {{40, 40}, {60, 50}, {80, 60}, {55, 45}, {30, 30}};
+        for (int[] size : sizes) {
+            int w = size[0], h = size[1];
+            CollisionMask obstacle = GameWorld.obstacleMask(w, h);
+            CollisionMask collectible = GameWorld.collectibleMask(w, h);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    assertEquals(shapes.covers(SpriteAtlas.obstacleSprite(w, h), w, h, x, y), obstacle.get(x, y));
+                    assertEquals(shapes.covers(SpriteAtlas.COLLECTIBLE, w, h, x, y), collectible.get(x, y));
+                }
+            }
+        }
+        // The collectible is a thin diagonal stroke: its box's corners are empty
+        CollisionMask collectible = GameWorld.collectibleMask(30, 30);
+        assertFalse(collectible.get(0, 0));
+        assertFalse(GameWorld.playerMask(40).overlaps(0, 0, collectible, 25, 25));
+    }
+
+    @Test
+    void masksOfEverySizeAreShared() {
+        CollisionMask small = GameWorld.obstacleMask(40, 40);
+        // Beyond the sizes the table starts out covering, it grows and keeps what it had
+        CollisionMask large = GameWorld.obstacleMask(300, 500);
+        assertSame(large, GameWorld.obstacleMask(300, 500));
+        assertSame(small, GameWorld.obstacleMask(40, 40));
+        SpriteShapes shapes = SpriteShapes.shared();
+        int sprite = SpriteAtlas.obstacleSprite(300, 500);
+        for (int y = 0; y < 500; y += 7) {
+            for (int x = 0; x < 300; x += 7) assertEquals(shapes.covers(sprite, 300, 500, x, y), large.get(x, y));
+        }
+    }
+
+    @Test
+    void outlinesSurviveTheStartupCache(@TempDir Path dir) throws Exception {
+        SpriteShapes shapes = SpriteShapes.shared();
+        Path file = dir.resolve("startup.bin");
+        BufferedImage atlas = new BufferedImage(SpriteAtlas.WIDTH, SpriteAtlas.HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        StartupCache.write(file, 42, new LevelData[StartupCache.LEVELS + 1],
+            new BufferedImage[StartupCache.LEVELS + 1], atlas, shapes);
+        SpriteShapes read = StartupCache.open(file, 42).shapes();
+        assertEquals(shapes.getStamp(), read.getStamp());
+        for (int sprite = 0; sprite < SpriteAtlas.SPRITES; sprite++) {
+            int w = SpriteAtlas.CELL_W[sprite], h = SpriteAtlas.CELL_H[sprite];
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) assertEquals(shapes.covers(sprite, w, h, x, y), read.covers(sprite, w, h, x, y));
+            }
+        }
+    }
+}